@@ -0,0 +1,79 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.audio;
+
+import com.mojang.blaze3d.audio.SoundBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the stereo to mono downmix of a decoded sound buffer.  Only the JDK and SoundBuffer are touched, so it runs
+ * without the game or the registries being loaded.  Conversion patches the buffer in place so the stereo data is
+ * restored before each conversion; the copy benchmark gives the cost of that restore.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConversionBenchmark {
+
+    private static final float SAMPLE_RATE = 44100F;
+
+    @Param({"8", "16"})
+    public int bits;
+
+    @Param({"1", "10"})
+    public int seconds;
+
+    private AudioFormat format;
+    private byte[] stereo;
+    private ByteBuffer data;
+
+    @Setup
+    public void setup() {
+        final int frameSize = (this.bits >> 3) * 2;
+        this.format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, SAMPLE_RATE, this.bits, 2, frameSize, SAMPLE_RATE, false);
+        this.stereo = new byte[(int) SAMPLE_RATE * this.seconds * frameSize];
+        new Random(0x5EED).nextBytes(this.stereo);
+        // Decoded sound data is held in native memory by the sound engine
+        this.data = ByteBuffer.allocateDirect(this.stereo.length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void restore() {
+        this.data.clear();
+        this.data.put(this.stereo);
+        this.data.flip();
+    }
+
+    @Benchmark
+    public ByteBuffer copy() {
+        restore();
+        return this.data;
+    }
+
+    @Benchmark
+    public SoundBuffer convert() {
+        restore();
+        return Conversion.convert(new SoundBuffer(this.data, this.format));
+    }
+}
@@ -119,7 +119,7 @@ public final class LightLevelHUD {
     }
 
     protected static boolean inFrustum(final double x, final double y, final double z) {
-        return FrustumHelper.isLocationInFrustum(new Vec3(x, y, z));
+        return FrustumHelper.isLocationInFrustum(x, y, z);
     }
 
     protected static boolean renderLightLevel(@Nonnull final BlockState state, @Nonnull final BlockState below) {
@@ -0,0 +1,40 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+package org.orecruncher.dsurround.mixins;
+
+import net.minecraft.client.renderer.culling.Frustum;
+import org.orecruncher.lib.particles.IMixinFrustum;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+/**
+ * Exposes the coordinate based frustum test that Frustum.isVisible() uses internally.
+ */
+@Mixin(Frustum.class)
+public class MixinFrustum implements IMixinFrustum {
+
+    @Shadow
+    private boolean cubeInFrustum(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        throw new AssertionError();
+    }
+
+    @Override
+    public boolean isBoxVisible(final double minX, final double minY, final double minZ, final double maxX, final double maxY, final double maxZ) {
+        return cubeInFrustum(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+}
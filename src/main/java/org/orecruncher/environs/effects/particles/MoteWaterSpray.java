@@ -41,6 +41,11 @@ public class MoteWaterSpray extends MotionMote {
 
 	protected static final Random RANDOM = XorShiftRandom.current();
 
+	// Corners of the quad before rotating to face the camera
+	private static final float[][] CORNERS = new float[][]{{-1.0F, -1.0F}, {-1.0F, 1.0F}, {1.0F, 1.0F}, {1.0F, -1.0F}};
+	// Scratch space for the rotated corners.  Motes are only rendered on the render thread.
+	private static final Vector3f[] VERTICES = new Vector3f[]{new Vector3f(), new Vector3f(), new Vector3f(), new Vector3f()};
+
 	protected float scale;
 
 	protected final float texU1, texU2;
@@ -86,18 +91,12 @@ public class MoteWaterSpray extends MotionMote {
 		final float y = renderY(info, partialTicks);
 		final float z = renderZ(info, partialTicks);
 
-		Quaternion quaternion = info.rotation();
-
-		Vector3f vector3f1 = new Vector3f(-1.0F, -1.0F, 0.0F);
-		vector3f1.transform(quaternion);
-		Vector3f[] avector3f = new Vector3f[]{
-				new Vector3f(-1.0F, -1.0F, 0.0F),
-				new Vector3f(-1.0F, 1.0F, 0.0F),
-				new Vector3f(1.0F, 1.0F, 0.0F),
-				new Vector3f(1.0F, -1.0F, 0.0F)};
+		final Quaternion quaternion = info.rotation();
+		final Vector3f[] avector3f = VERTICES;
 
 		for (int i = 0; i < 4; ++i) {
-			Vector3f vector3f = avector3f[i];
+			final Vector3f vector3f = avector3f[i];
+			vector3f.set(CORNERS[i][0], CORNERS[i][1], 0.0F);
 			vector3f.transform(quaternion);
 			vector3f.mul(this.scale);
 			vector3f.add(x, y, z);
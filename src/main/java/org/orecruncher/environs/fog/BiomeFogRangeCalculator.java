@@ -18,8 +18,10 @@
 
 package org.orecruncher.environs.fog;
 
+import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
 import net.minecraft.client.multiplayer.ClientLevel;
-import net.minecraft.util.CubicSampler;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeManager;
 import net.minecraft.world.phys.Vec3;
@@ -30,19 +32,39 @@ import org.orecruncher.environs.config.Config;
 import org.orecruncher.environs.library.BiomeInfo;
 import org.orecruncher.environs.library.BiomeUtil;
 import org.orecruncher.lib.GameUtils;
+import org.orecruncher.lib.TickCounter;
 
 import javax.annotation.Nonnull;
 
 /**
- * Scans the biome area around the player to determine the fog parameters.
+ * Scans the biome area around the player to determine the fog parameters.  The
+ * survey is done once a tick, and the render pass interpolates between the
+ * results of the last two surveys.  The visibility of the biome quarts that are
+ * sampled is cached since the survey area mostly overlaps from one tick to the
+ * next.  If a tick is skipped, like when fog is turned off for a while, the
+ * results are stale and the calculator primes itself again.
  */
 @OnlyIn(Dist.CLIENT)
 public class BiomeFogRangeCalculator extends VanillaFogRangeCalculator {
 
+    // Same kernel that CubicSampler uses for gaussianSampleVec3()
+    private static final double[] GAUSSIAN_SAMPLE_KERNEL = new double[]{0.0D, 1.0D, 4.0D, 6.0D, 4.0D, 1.0D, 0.0D};
+    private static final int SAMPLE_SIZE = 6;
+    // Cached visibility is tossed periodically so biome data reloads are picked up
+    private static final int CACHE_FLUSH_INTERVAL = 100;
+    private static final int MAX_CACHED = 4096;
+
     protected final FogResult cached = new FogResult();
+    protected final Long2FloatOpenHashMap visibilityCache = new Long2FloatOpenHashMap(512);
+    protected ClientLevel cacheWorld;
+    protected boolean primed;
+    protected long surveyTick;
+    protected double prevVisibility;
+    protected double visibility;
 
     public BiomeFogRangeCalculator() {
         super("BiomeFogRangeCalculator");
+        this.visibilityCache.defaultReturnValue(Float.NaN);
     }
 
     @Override
@@ -54,19 +76,11 @@ public class BiomeFogRangeCalculator extends VanillaFogRangeCalculator {
     @Nonnull
     public FogResult calculate(@Nonnull final EntityViewRenderEvent.RenderFogEvent event) {
 
-        final ClientLevel world = GameUtils.getWorld();
-        assert world != null;
-
-        final BiomeManager biomemanager = world.getBiomeManager();
-        final Vec3 origin = GameUtils.getMC().gameRenderer.getMainCamera().getPosition().subtract(2.0D, 2.0D, 2.0D).scale(0.25D);
-        final Vec3 visibilitySurvey = CubicSampler.gaussianSampleVec3(origin, (x, y, z) -> {
-            final Biome b = biomemanager.getNoiseBiomeAtQuart(x, y, z).value();
-            final BiomeInfo info = BiomeUtil.getBiomeData(b);
-            return new Vec3(info.getVisibility(), 0, 0);
-        });
+        if (!this.primed || isStale())
+            tick();
 
         // Lower values means less visibility
-        final double visibility = visibilitySurvey.x();
+        final double visibility = Mth.lerp(event.getPartialTicks(), this.prevVisibility, this.visibility);
         final double farPlaneDistance = visibility * event.getFarPlaneDistance();
         final double farPlaneDistanceScaleBiome = 0.1D * (1D - visibility) + FogResult.DEFAULT_PLANE_SCALE * visibility;
 
@@ -75,4 +89,86 @@ public class BiomeFogRangeCalculator extends VanillaFogRangeCalculator {
         return cached;
     }
 
+    @Override
+    public void tick() {
+        if (!enabled()) {
+            this.primed = false;
+            return;
+        }
+
+        if (isStale())
+            this.primed = false;
+
+        final double survey = survey();
+        this.prevVisibility = this.primed ? this.visibility : survey;
+        this.visibility = survey;
+        this.surveyTick = TickCounter.getTickCount();
+        this.primed = true;
+    }
+
+    /**
+     * Indicates whether the last survey is from before the previous tick, meaning the calculator was skipped for a
+     * while and the render pass should not interpolate from it.
+     */
+    protected boolean isStale() {
+        return TickCounter.getTickCount() - this.surveyTick > 1;
+    }
+
+    /**
+     * Gaussian sample of the biome visibility around the camera.  Equivalent to CubicSampler.gaussianSampleVec3()
+     * but without the Vec3 per sample.
+     */
+    protected double survey() {
+        final ClientLevel world = GameUtils.getWorld();
+        assert world != null;
+
+        if (world != this.cacheWorld
+                || this.visibilityCache.size() > MAX_CACHED
+                || TickCounter.getTickCount() % CACHE_FLUSH_INTERVAL == 0) {
+            this.visibilityCache.clear();
+            this.cacheWorld = world;
+        }
+
+        final BiomeManager biomeManager = world.getBiomeManager();
+        final Vec3 origin = GameUtils.getMC().gameRenderer.getMainCamera().getPosition().subtract(2.0D, 2.0D, 2.0D).scale(0.25D);
+        final int baseX = Mth.floor(origin.x());
+        final int baseY = Mth.floor(origin.y());
+        final int baseZ = Mth.floor(origin.z());
+        final double fracX = origin.x() - baseX;
+        final double fracY = origin.y() - baseY;
+        final double fracZ = origin.z() - baseZ;
+
+        double totalWeight = 0D;
+        double result = 0D;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            final double weightX = Mth.lerp(fracX, GAUSSIAN_SAMPLE_KERNEL[i + 1], GAUSSIAN_SAMPLE_KERNEL[i]);
+            final int x = baseX - 2 + i;
+            for (int j = 0; j < SAMPLE_SIZE; j++) {
+                final double weightY = Mth.lerp(fracY, GAUSSIAN_SAMPLE_KERNEL[j + 1], GAUSSIAN_SAMPLE_KERNEL[j]);
+                final int y = baseY - 2 + j;
+                for (int k = 0; k < SAMPLE_SIZE; k++) {
+                    final double weightZ = Mth.lerp(fracZ, GAUSSIAN_SAMPLE_KERNEL[k + 1], GAUSSIAN_SAMPLE_KERNEL[k]);
+                    final int z = baseZ - 2 + k;
+                    final double weight = weightX * weightY * weightZ;
+                    totalWeight += weight;
+                    result += getVisibility(biomeManager, x, y, z) * weight;
+                }
+            }
+        }
+
+        return result / totalWeight;
+    }
+
+    protected float getVisibility(@Nonnull final BiomeManager biomeManager, final int quartX, final int quartY, final int quartZ) {
+        final long key = BlockPos.asLong(quartX, quartY, quartZ);
+        float result = this.visibilityCache.get(key);
+        if (Float.isNaN(result)) {
+            final Biome b = biomeManager.getNoiseBiomeAtQuart(quartX, quartY, quartZ).value();
+            final BiomeInfo info = BiomeUtil.getBiomeData(b);
+            result = info.getVisibility();
+            this.visibilityCache.put(key, result);
+        }
+        return result;
+    }
+
 }
@@ -23,6 +23,7 @@ import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.client.event.EntityViewRenderEvent;
 import org.orecruncher.environs.Environs;
 import org.orecruncher.environs.config.Config;
+import org.orecruncher.lib.TickCounter;
 import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.logging.IModLog;
 
@@ -30,7 +31,8 @@ import javax.annotation.Nonnull;
 
 /**
  * Consults various different fog calculators and aggregates the results into a
- * single set.
+ * single set.  The heavy lifting of the calculators is done during tick(), and
+ * the result is reused if fog is requested again for the same frame.
  */
 @OnlyIn(Dist.CLIENT)
 public class HolisticFogRangeCalculator implements IFogRangeCalculator {
@@ -40,6 +42,11 @@ public class HolisticFogRangeCalculator implements IFogRangeCalculator {
     protected final ObjectArray<IFogRangeCalculator> calculators = new ObjectArray<>(8);
     protected final FogResult cached = new FogResult();
 
+    // Inputs of the last calculation
+    protected long lastTick = -1;
+    protected double lastPartialTicks;
+    protected float lastFarPlane;
+
     public void add(@Nonnull final IFogRangeCalculator calc) {
         this.calculators.add(calc);
     }
@@ -59,6 +66,14 @@ public class HolisticFogRangeCalculator implements IFogRangeCalculator {
     @Nonnull
     public FogResult calculate(@Nonnull final EntityViewRenderEvent.RenderFogEvent event) {
 
+        final long tick = TickCounter.getTickCount();
+        if (tick == this.lastTick && event.getPartialTicks() == this.lastPartialTicks && event.getFarPlaneDistance() == this.lastFarPlane)
+            return this.cached;
+
+        this.lastTick = tick;
+        this.lastPartialTicks = event.getPartialTicks();
+        this.lastFarPlane = event.getFarPlaneDistance();
+
         this.cached.set(event);
         float start = this.cached.getStart();
         float end = this.cached.getEnd();
@@ -19,6 +19,7 @@
 package org.orecruncher.environs.handlers;
 
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -47,10 +48,23 @@ class AreaBlockEffects extends HandlerBase {
         super("Area Block Effects");
     }
 
+    @Override
+    public boolean hasPrepare() {
+        return true;
+    }
+
+    @Override
+    public void prepare(@Nonnull final BlockGetter snapshot) {
+        this.nearEffects.survey(snapshot);
+        this.farEffects.survey(snapshot);
+    }
+
     @Override
     public void process(@Nonnull final Player player) {
-        this.nearEffects.tick();
-        this.farEffects.tick();
+        // Effects for the blocks found by the surveys of the last tick
+        this.nearEffects.apply();
+        this.farEffects.apply();
+        // The always on scanner keeps a block index that is only safe to touch on the client thread
         this.alwaysOn.tick();
         this.blockChange.update(this.nanos);
         this.nanos = 0;
@@ -93,6 +93,7 @@ public class BiomeSoundEffects extends HandlerBase {
 
     @Override
     public void onConnect() {
+        this.biomes.reset();
         clearSounds();
     }
 
@@ -102,7 +103,6 @@ public class BiomeSoundEffects extends HandlerBase {
     }
 
     private void handleBiomeSounds(@Nonnull final Player player) {
-        this.biomes.tick();
         WORK_MAP.clear();
 
         // Only gather data if the player is alive. If the player is dead the biome sounds will cease playing.
@@ -43,6 +43,7 @@ import org.orecruncher.lib.DayCycle;
 import org.orecruncher.lib.GameUtils;
 import org.orecruncher.lib.TickCounter;
 import org.orecruncher.lib.WorldUtils;
+import org.orecruncher.lib.events.BlockUpdateEvent;
 import org.orecruncher.lib.events.DiagnosticEvent;
 import org.orecruncher.lib.resource.ResourceUtils;
 import org.orecruncher.lib.seasons.Season;
@@ -137,9 +138,15 @@ class CommonStateHandler extends HandlerBase {
 
     @Override
     public void onDisconnect() {
+        this.ceilingCoverage.clear();
         CommonState.reset();
     }
 
+    @SubscribeEvent
+    public void onBlockUpdate(@Nonnull final BlockUpdateEvent event) {
+        event.getPositions().forEach(this.ceilingCoverage::onBlockUpdate);
+    }
+
     @SubscribeEvent(priority = EventPriority.HIGH)
     public void diagnostics(@Nonnull final DiagnosticEvent event) {
         if (Config.CLIENT.logging.enableLogging.get()) {
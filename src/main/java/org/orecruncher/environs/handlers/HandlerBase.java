@@ -20,6 +20,7 @@ package org.orecruncher.environs.handlers;
 
 import com.google.common.base.MoreObjects;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.common.MinecraftForge;
@@ -76,6 +77,25 @@ public class HandlerBase {
 
     }
 
+    /**
+     * Indicates whether the handler has read only work that can be done by prepare().
+     */
+    public boolean hasPrepare() {
+        return false;
+    }
+
+    /**
+     * Read only work for the next tick.  Invoked on a worker thread after the handlers have been processed for a
+     * tick, and runs while the client thread carries on with the rest of the tick.  Blocks must only be read
+     * through the snapshot provided, and nothing that other handlers can see may be changed.  The Manager waits for
+     * prepare() to finish before process() is invoked on the next tick, where the results are used.
+     *
+     * @param snapshot Blocks around the player captured on the client thread at the end of the handler processing
+     */
+    public void prepare(@Nonnull final BlockGetter snapshot) {
+
+    }
+
     /**
      * Called when the client is connecting to a server. Useful for initializing
      * data to a baseline state.
@@ -19,6 +19,7 @@
 package org.orecruncher.environs.handlers;
 
 import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
 import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.entity.player.Player;
 import net.minecraftforge.api.distmarker.Dist;
@@ -34,8 +35,14 @@ import org.orecruncher.lib.TickCounter;
 import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.events.DiagnosticEvent;
 import org.orecruncher.lib.logging.IModLog;
+import org.orecruncher.lib.math.TimerEMA;
+import org.orecruncher.lib.world.WorldSnapshot;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Mod.EventBusSubscriber(modid = Environs.MOD_ID, value = Dist.CLIENT, bus = Mod.EventBusSubscriber.Bus.FORGE)
 public class Manager {
@@ -50,6 +57,16 @@ public class Manager {
     }
 
     private final ObjectArray<HandlerBase> effectHandlers = new ObjectArray<>();
+    private final ObjectArray<HandlerBase> prepareHandlers = new ObjectArray<>();
+    private final TimerEMA prepareTimer = new TimerEMA("Environs Prepare");
+    private final ExecutorService prepareExecutor = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "Environs Prepare");
+        thread.setDaemon(true);
+        return thread;
+    });
+    @Nullable
+    private CompletableFuture<Void> pendingPrepare;
+    private volatile long prepareNanos;
 
     private Manager() {
         init();
@@ -57,6 +74,8 @@ public class Manager {
 
     private void register(@Nonnull final HandlerBase handler) {
         this.effectHandlers.add(handler);
+        if (handler.hasPrepare())
+            this.prepareHandlers.add(handler);
         LOGGER.debug("Registered handler [%s]", handler.getClass().getName());
     }
 
@@ -77,6 +96,8 @@ public class Manager {
     }
 
     private void onDisconnect() {
+        // The handlers cannot be torn down while a prepare is still using them
+        awaitPrepare();
         MinecraftForge.EVENT_BUS.unregister(this);
         for (final HandlerBase h : this.effectHandlers)
             h.disconnect0();
@@ -117,6 +138,11 @@ public class Manager {
 
         final long tick = TickCounter.getTickCount();
 
+        // The work started at the end of the last tick has to be done before process() uses it
+        profiler.push("Await Prepare");
+        awaitPrepare();
+        profiler.pop();
+
         for (final HandlerBase handler : this.effectHandlers) {
             profiler.push(handler.getHandlerName());
             final long mark = System.nanoTime();
@@ -126,13 +152,52 @@ public class Manager {
             profiler.pop();
         }
 
+        profiler.push("Start Prepare");
+        startPrepare();
+        profiler.pop();
+
         profiler.pop();
     }
 
+    /**
+     * Starts the prepare phase of the handlers for the next tick.  The blocks around the player are captured on the
+     * client thread, and the handlers survey the capture on the worker while the client thread goes on with the
+     * rest of its tick.  The capture is centered the same as the one made for sound processing so the two share
+     * cached sections.
+     */
+    private void startPrepare() {
+        final Player player = getPlayer();
+        if (this.prepareHandlers.isEmpty() || player == null)
+            return;
+
+        final WorldSnapshot snapshot = WorldSnapshot.capture(player.level, new BlockPos(player.getEyePosition(1F)));
+        this.pendingPrepare = CompletableFuture.runAsync(() -> {
+            final long mark = System.nanoTime();
+            for (final HandlerBase handler : this.prepareHandlers) {
+                try {
+                    handler.prepare(snapshot);
+                } catch (@Nonnull final Throwable t) {
+                    LOGGER.error(t, "Error preparing handler [%s]", handler.getHandlerName());
+                }
+            }
+            this.prepareNanos = System.nanoTime() - mark;
+        }, this.prepareExecutor);
+    }
+
+    private void awaitPrepare() {
+        if (this.pendingPrepare != null) {
+            this.pendingPrepare.join();
+            this.pendingPrepare = null;
+            this.prepareTimer.update(this.prepareNanos);
+        }
+    }
+
     @SubscribeEvent
     public static void diagnosticEvent(@Nonnull final DiagnosticEvent event) {
-        if (Config.CLIENT.logging.enableLogging.get())
+        if (Config.CLIENT.logging.enableLogging.get()) {
             instance().effectHandlers.forEach(h -> event.addTimer(h.getTimer()));
+            event.addTimer(instance().prepareTimer);
+        }
     }
 
     @SubscribeEvent(priority = EventPriority.HIGH)
@@ -28,6 +28,14 @@ import javax.annotation.Nonnull;
 @OnlyIn(Dist.CLIENT)
 class StateVariables extends VariableSet<IStateVariables> implements IStateVariables {
 
+    private boolean isInside;
+    private float currentTemperature;
+    private boolean isUnderground;
+    private boolean isInClouds;
+    private boolean isInSpace;
+    private boolean isInVillage;
+    private int lightLevel;
+
     public StateVariables() {
         super("state");
     }
@@ -39,7 +47,23 @@ class StateVariables extends VariableSet<IStateVariables> implements IStateVaria
     }
 
     public void update() {
-
+        // Values are read from the common state, so only track them to know when they change
+        if (this.isInside != CommonState.isInside()
+                || this.currentTemperature != CommonState.getCurrentTemperature()
+                || this.isUnderground != CommonState.isUnderground()
+                || this.isInClouds != CommonState.isInClouds()
+                || this.isInSpace != CommonState.isInSpace()
+                || this.isInVillage != CommonState.isInVillage()
+                || this.lightLevel != CommonState.getLightLevel()) {
+            this.isInside = CommonState.isInside();
+            this.currentTemperature = CommonState.getCurrentTemperature();
+            this.isUnderground = CommonState.isUnderground();
+            this.isInClouds = CommonState.isInClouds();
+            this.isInSpace = CommonState.isInSpace();
+            this.isInVillage = CommonState.isInVillage();
+            this.lightLevel = CommonState.getLightLevel();
+            changed();
+        }
     }
 
     @Override
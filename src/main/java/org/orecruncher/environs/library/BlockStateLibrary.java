@@ -61,6 +61,7 @@ public final class BlockStateLibrary {
 
     private static final IModLog LOGGER = Environs.LOGGER.createChild(BlockStateLibrary.class);
     private static final BlockStateMatcherMap<BlockStateData> registry = new BlockStateMatcherMap<>();
+    private static int generation;
 
     private BlockStateLibrary() {
 
@@ -70,6 +71,14 @@ public final class BlockStateLibrary {
         ModuleServiceManager.instance().add(new BlockStateLibraryService());
     }
 
+    /**
+     * Gets the number of times the library has been stopped.  Anything derived from the data of BlockStates needs to
+     * be discarded when the value changes.
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
     static void initFromConfig(@Nonnull final List<BlockConfig> config) {
         config.forEach(BlockStateLibrary::register);
     }
@@ -175,8 +184,8 @@ public final class BlockStateLibrary {
 
             IResourceAccessor.process(configs, accessor -> initFromConfig(accessor.as(blockType)));
 
-            ForgeUtils.getBlockStates().forEach(BlockStateUtil::getData);
-            ForgeUtils.getBlockStates().stream().map(BlockStateUtil::getData).forEach(BlockStateData::trim);
+            // States are assigned their data during precache
+            registry.values().forEach(BlockStateData::trim);
 
             BlockStateUtil.setData(Blocks.AIR.defaultBlockState(), BlockStateData.DEFAULT);
             BlockStateUtil.setData(Blocks.CAVE_AIR.defaultBlockState(), BlockStateData.DEFAULT);
@@ -192,6 +201,12 @@ public final class BlockStateLibrary {
         public void stop() {
             registry.clear();
             ForgeUtils.getBlockStates().forEach(state -> BlockStateUtil.setData(state, null));
+            generation++;
+        }
+
+        @Override
+        public void precache(@Nonnull final BlockState state) {
+            BlockStateUtil.getData(state);
         }
     }
 }
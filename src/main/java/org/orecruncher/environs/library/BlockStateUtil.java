@@ -18,16 +18,48 @@
 
 package org.orecruncher.environs.library;
 
+import net.minecraft.tags.BlockTags;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.common.Tags;
+import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.tags.ITagManager;
 import org.orecruncher.environs.misc.IMixinBlockData;
+import org.orecruncher.lib.collections.ObjectArray;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 @OnlyIn(Dist.CLIENT)
 public final class BlockStateUtil {
+
+    // Flags cached alongside the data so the scanners can test a state without going through the data.  The valid
+    // bit is set whenever data has been assigned.
+    private static final int FLAG_VALID = 1;
+    private static final int FLAG_SOUNDS_OR_EFFECTS = 1 << 1;
+    private static final int FLAG_ALWAYS_ON = 1 << 2;
+    private static final int FLAG_CEILING = 1 << 3;
+
+    // Blocks that stop motion but should not be considered a ceiling when determining if the player is inside
+    private static final ObjectArray<TagKey<Block>> NON_CEILING = new ObjectArray<>();
+
+    static {
+        // Vanilla tags
+        NON_CEILING.add(BlockTags.LEAVES);
+        NON_CEILING.add(BlockTags.FENCE_GATES);
+        NON_CEILING.add(BlockTags.FENCES);
+        NON_CEILING.add(BlockTags.WALLS);
+
+        // Forge tags
+        NON_CEILING.add(Tags.Blocks.GLASS_PANES);
+        NON_CEILING.add(Tags.Blocks.CHESTS);
+        NON_CEILING.add(Tags.Blocks.FENCES);
+        NON_CEILING.add(Tags.Blocks.FENCE_GATES);
+    }
+
     private BlockStateUtil() {
     }
 
@@ -36,13 +68,64 @@ public final class BlockStateUtil {
         BlockStateData profile = ((IMixinBlockData) state).getBlockData();
         if (profile == null) {
             profile = BlockStateLibrary.get(state);
-            ((IMixinBlockData) state).setBlockData(profile);
+            setData(state, profile);
         }
         return profile;
     }
 
     public static void setData(@Nonnull final BlockState state, @Nullable final BlockStateData data) {
-        ((IMixinBlockData) state).setBlockData(data);
+        final IMixinBlockData accessor = (IMixinBlockData) state;
+        accessor.setBlockData(data);
+        int flags = 0;
+        if (data != null) {
+            flags = FLAG_VALID;
+            if (data.hasSoundsOrEffects())
+                flags |= FLAG_SOUNDS_OR_EFFECTS;
+            if (data.hasAlwaysOnEffects())
+                flags |= FLAG_ALWAYS_ON;
+            if (computeActsAsCeiling(state))
+                flags |= FLAG_CEILING;
+        }
+        accessor.setBlockFlags(flags);
+    }
+
+    public static boolean hasSoundsOrEffects(@Nonnull final BlockState state) {
+        return (getFlags(state) & FLAG_SOUNDS_OR_EFFECTS) != 0;
+    }
+
+    public static boolean hasAlwaysOnEffects(@Nonnull final BlockState state) {
+        return (getFlags(state) & FLAG_ALWAYS_ON) != 0;
+    }
+
+    /**
+     * Indicates whether the block state counts as cover over the player's head when determining if the player is
+     * inside.  The result is cached with the state so the tags only need to be checked once.
+     */
+    public static boolean actsAsCeiling(@Nonnull final BlockState state) {
+        return (getFlags(state) & FLAG_CEILING) != 0;
+    }
+
+    private static boolean computeActsAsCeiling(@Nonnull final BlockState state) {
+        // If it doesn't block movement it doesn't count as a ceiling.
+        if (!state.getMaterial().blocksMotion())
+            return false;
+
+        // Test the block tags in our NON_CEILING set to see if any match
+        final Block block = state.getBlock();
+        final ITagManager<Block> blockTags = ForgeRegistries.BLOCKS.tags();
+        for (final TagKey<Block> tagKey : NON_CEILING) {
+            if (blockTags.getTag(tagKey).contains(block))
+                return false;
+        }
+        return true;
+    }
+
+    private static int getFlags(@Nonnull final BlockState state) {
+        final int flags = ((IMixinBlockData) state).getBlockFlags();
+        if (flags != 0)
+            return flags;
+        getData(state);
+        return ((IMixinBlockData) state).getBlockFlags();
     }
 
 }
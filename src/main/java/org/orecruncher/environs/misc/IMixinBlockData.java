@@ -28,4 +28,8 @@ public interface IMixinBlockData {
     BlockStateData getBlockData();
 
     void setBlockData(@Nullable final BlockStateData data);
+
+    int getBlockFlags();
+
+    void setBlockFlags(final int flags);
 }
@@ -28,6 +28,7 @@ import javax.annotation.Nullable;
 public class MixinBlockState implements IMixinBlockData {
 
     private BlockStateData environs_blockData;
+    private int environs_blockFlags;
 
     @Nullable
     @Override
@@ -39,4 +40,14 @@ public class MixinBlockState implements IMixinBlockData {
     public void setBlockData(@Nullable final BlockStateData data) {
         this.environs_blockData = data;
     }
+
+    @Override
+    public int getBlockFlags() {
+        return this.environs_blockFlags;
+    }
+
+    @Override
+    public void setBlockFlags(final int flags) {
+        this.environs_blockFlags = flags;
+    }
 }
@@ -47,7 +47,7 @@ public class AlwaysOnBlockEffectScanner extends CuboidScanner {
 
 	@Override
 	protected boolean interestingBlock(final BlockState state) {
-		return BlockStateUtil.getData(state).hasAlwaysOnEffects();
+		return BlockStateUtil.hasAlwaysOnEffects(state);
 	}
 
 	@Override
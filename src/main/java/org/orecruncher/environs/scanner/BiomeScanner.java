@@ -18,91 +18,89 @@
 
 package org.orecruncher.environs.scanner;
 
-import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.core.BlockPos;
-import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.level.LevelReader;
+import net.minecraft.core.QuartPos;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
-import org.orecruncher.environs.Environs;
 import org.orecruncher.environs.handlers.CommonState;
 import org.orecruncher.environs.library.BiomeInfo;
 import org.orecruncher.environs.library.BiomeUtil;
-import org.orecruncher.lib.TickCounter;
 import org.orecruncher.lib.biomes.BiomeUtilities;
 
-import java.util.HashSet;
-import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * Performs an area scan around the to calculate the relative weights of the
- * biomes in the local area.
+ * biomes in the local area.  The area is sampled at the quart (4x4 block)
+ * resolution that biomes are stored at.  Samples are held in a ring buffer
+ * that is addressed by quart coordinate so that when the player moves only the
+ * quarts that enter the area need to be sampled, and the histogram is adjusted
+ * by the ones that leave.  A few rows are resampled each tick to pick up chunks
+ * that have loaded since they were sampled.
  */
 @OnlyIn(Dist.CLIENT)
 public final class BiomeScanner {
 
 	private static final int BIOME_SURVEY_RANGE = 18;
-	private static final int MAX_BIOME_AREA = (int) Math.pow(BIOME_SURVEY_RANGE * 2 + 1, 2);
+	private static final int QUART_RANGE = QuartPos.fromBlock(BIOME_SURVEY_RANGE);
+	private static final int WINDOW_SIZE = QUART_RANGE * 2 + 1;
+	private static final int MAX_BIOME_AREA = WINDOW_SIZE * WINDOW_SIZE;
+	private static final int SURVEY_QUART_Y = QuartPos.fromBlock(0);
+	private static final int REFRESH_ROWS = 3;
 
-	private final BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+	private final BiomeInfo[] window = new BiomeInfo[MAX_BIOME_AREA];
+	private final Reference2IntOpenHashMap<BiomeInfo> histogram = new Reference2IntOpenHashMap<>(8);
+	private final Reference2IntOpenHashMap<BiomeInfo> fake = new Reference2IntOpenHashMap<>(1);
 
 	private int biomeArea;
-	private Reference2IntOpenHashMap<BiomeInfo> weights = new Reference2IntOpenHashMap<>(8);
+	private Reference2IntOpenHashMap<BiomeInfo> weights = this.histogram;
 
-	// "Finger print" of the last area survey.
-	private BiomeInfo surveyedBiome = null;
+	// Quart the window is centered on.  Only meaningful when valid.
+	private boolean valid = false;
 	private int surveyedDimension = 0;
-	private BlockPos surveyedPosition = BlockPos.ZERO;
+	private int centerX;
+	private int centerZ;
+	private int refreshRow;
 
 	public void tick() {
-		final BlockPos position = CommonState.getPlayerPosition();
 		final BiomeInfo playerBiome = CommonState.getPlayerBiome();
+
+		if (playerBiome.isFake()) {
+			this.valid = false;
+			this.fake.clear();
+			this.fake.put(playerBiome, 1);
+			this.biomeArea = 1;
+			this.weights = this.fake;
+			return;
+		}
+
+		final BlockPos position = CommonState.getPlayerPosition();
 		final int dimId = CommonState.getDimensionId();
+		final int quartX = QuartPos.fromBlock(position.getX());
+		final int quartZ = QuartPos.fromBlock(position.getZ());
 
-		if (this.surveyedBiome != playerBiome
+		if (!this.valid
 				|| this.surveyedDimension != dimId
-				|| this.surveyedPosition.compareTo(position) != 0
-				|| TickCounter.getTickCount() % 20 == 0) {
-
-			this.surveyedBiome = playerBiome;
+				|| Math.abs(quartX - this.centerX) >= WINDOW_SIZE
+				|| Math.abs(quartZ - this.centerZ) >= WINDOW_SIZE) {
 			this.surveyedDimension = dimId;
-			this.surveyedPosition = position;
-
-			this.biomeArea = 0;
-			this.weights = new Reference2IntOpenHashMap<>(8);
-
-			if (playerBiome.isFake()) {
-				this.biomeArea = 1;
-				this.weights.put(playerBiome, 1);
-			} else {
-				final LevelReader provider = CommonState.getBlockReader();
-				for (int dZ = -BIOME_SURVEY_RANGE; dZ <= BIOME_SURVEY_RANGE; dZ++) {
-					for (int dX = -BIOME_SURVEY_RANGE; dX <= BIOME_SURVEY_RANGE; dX++) {
-						this.mutable.set(this.surveyedPosition.getX() + dX, 0, this.surveyedPosition.getZ() + dZ);
-						final Biome biome = BiomeUtilities.getClientBiome(this.mutable);
-						if (biome == null || biome.getRegistryName() == null) {
-							continue;
-						}
-						final BiomeInfo info = BiomeUtil.getBiomeData(biome);
-						this.weights.addTo(info, 1);
-					}
-				}
-				this.biomeArea = MAX_BIOME_AREA;
-			}
-
-			// Validate there are no duplicates in the list.
-			final Set<ResourceLocation> seen = new HashSet<>();
-			for (final Reference2IntMap.Entry<BiomeInfo> kvp : this.weights.reference2IntEntrySet()) {
-				final ResourceLocation location = kvp.getKey().getKey();
-				if (seen.contains(location)) {
-					Environs.LOGGER.debug("Duplicate entry detected: %s", location.toString());
-				} else {
-					seen.add(location);
-				}
-			}
+			survey(quartX, quartZ);
+		} else {
+			slide(quartX, quartZ);
+			refresh();
 		}
+
+		this.biomeArea = MAX_BIOME_AREA;
+		this.weights = this.histogram;
+	}
+
+	/**
+	 * Forces the next tick to survey the entire area.
+	 */
+	public void reset() {
+		this.valid = false;
 	}
 
 	public int getBiomeArea() {
@@ -113,4 +111,79 @@ public final class BiomeScanner {
 		return this.weights;
 	}
 
+	private void survey(final int quartX, final int quartZ) {
+		this.histogram.clear();
+		this.centerX = quartX;
+		this.centerZ = quartZ;
+		for (int z = quartZ - QUART_RANGE; z <= quartZ + QUART_RANGE; z++)
+			for (int x = quartX - QUART_RANGE; x <= quartX + QUART_RANGE; x++) {
+				final BiomeInfo info = sample(x, z);
+				this.window[slot(x, z)] = info;
+				add(info);
+			}
+		this.refreshRow = 0;
+		this.valid = true;
+	}
+
+	private void slide(final int quartX, final int quartZ) {
+		// The column entering the window lands in the ring slots of the column that is leaving
+		while (this.centerX != quartX) {
+			final int step = quartX > this.centerX ? 1 : -1;
+			this.centerX += step;
+			final int x = this.centerX + step * QUART_RANGE;
+			for (int z = this.centerZ - QUART_RANGE; z <= this.centerZ + QUART_RANGE; z++)
+				resample(x, z);
+		}
+
+		while (this.centerZ != quartZ) {
+			final int step = quartZ > this.centerZ ? 1 : -1;
+			this.centerZ += step;
+			final int z = this.centerZ + step * QUART_RANGE;
+			for (int x = this.centerX - QUART_RANGE; x <= this.centerX + QUART_RANGE; x++)
+				resample(x, z);
+		}
+	}
+
+	private void refresh() {
+		for (int i = 0; i < REFRESH_ROWS; i++) {
+			final int z = this.centerZ - QUART_RANGE + this.refreshRow;
+			for (int x = this.centerX - QUART_RANGE; x <= this.centerX + QUART_RANGE; x++)
+				resample(x, z);
+			this.refreshRow = (this.refreshRow + 1) % WINDOW_SIZE;
+		}
+	}
+
+	private void resample(final int quartX, final int quartZ) {
+		final int slot = slot(quartX, quartZ);
+		final BiomeInfo info = sample(quartX, quartZ);
+		final BiomeInfo old = this.window[slot];
+		if (old != info) {
+			remove(old);
+			add(info);
+			this.window[slot] = info;
+		}
+	}
+
+	private void add(@Nullable final BiomeInfo info) {
+		if (info != null)
+			this.histogram.addTo(info, 1);
+	}
+
+	private void remove(@Nullable final BiomeInfo info) {
+		if (info != null && this.histogram.addTo(info, -1) == 1)
+			this.histogram.removeInt(info);
+	}
+
+	@Nullable
+	private static BiomeInfo sample(final int quartX, final int quartZ) {
+		final Biome biome = BiomeUtilities.getClientNoiseBiome(quartX, SURVEY_QUART_Y, quartZ);
+		if (biome == null || biome.getRegistryName() == null)
+			return null;
+		return BiomeUtil.getBiomeData(biome);
+	}
+
+	private static int slot(final int quartX, final int quartZ) {
+		return Math.floorMod(quartX, WINDOW_SIZE) * WINDOW_SIZE + Math.floorMod(quartZ, WINDOW_SIZE);
+	}
+
 }
@@ -18,35 +18,37 @@
 
 package org.orecruncher.environs.scanner;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.core.Vec3i;
-import net.minecraft.tags.BlockTags;
-import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
-import net.minecraftforge.common.Tags;
-import net.minecraftforge.registries.ForgeRegistries;
-import net.minecraftforge.registries.tags.ITagManager;
 import org.orecruncher.environs.handlers.CommonState;
+import org.orecruncher.environs.library.BlockStateUtil;
 import org.orecruncher.environs.library.DimensionInfo;
 import org.orecruncher.environs.library.DimensionLibrary;
 import org.orecruncher.lib.GameUtils;
 import org.orecruncher.lib.TickCounter;
-import org.orecruncher.lib.WorldUtils;
-import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.math.MathStuff;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Performs area scanning around the player to determine area ceiling coverage.
- * Used to determine if the player is "inside" or "outside".
+ * Used to determine if the player is "inside" or "outside".  The highest block
+ * acting as a ceiling in each block column is remembered so that once a column
+ * has been scanned down to the player's head it does not need to be scanned
+ * again until a block in the column changes or the chunk reloads.
  */
 @OnlyIn(Dist.CLIENT)
 public final class CeilingCoverage {
@@ -56,7 +58,6 @@ public final class CeilingCoverage {
 	private static final float INSIDE_THRESHOLD = 1.0F - 65.0F / 176.0F;
 	private static final Cell[] cells;
 	private static final float TOTAL_POINTS;
-	private static final ObjectArray<TagKey<Block>> NON_CEILING = new ObjectArray<>();
 
 	static {
 
@@ -74,31 +75,28 @@ public final class CeilingCoverage {
 		for (final Cell c : cellList)
 			totalPoints += c.potentialPoints();
 		TOTAL_POINTS = totalPoints;
-
-		// Vanilla tags
-		NON_CEILING.add(BlockTags.LEAVES);
-		NON_CEILING.add(BlockTags.FENCE_GATES);
-		NON_CEILING.add(BlockTags.FENCES);
-		NON_CEILING.add(BlockTags.WALLS);
-
-		// Forge tags
-		NON_CEILING.add(Tags.Blocks.GLASS_PANES);
-		NON_CEILING.add(Tags.Blocks.CHESTS);
-		NON_CEILING.add(Tags.Blocks.FENCES);
-		NON_CEILING.add(Tags.Blocks.FENCE_GATES);
 	}
 
+	private final Long2ObjectOpenHashMap<Column> columns = new Long2ObjectOpenHashMap<>(16);
+	private final BlockPos.MutableBlockPos working = new BlockPos.MutableBlockPos();
+	private long lastChunk = Long.MIN_VALUE;
 	private boolean reallyInside = false;
 
 	public void tick() {
 		if (TickCounter.getTickCount() % SURVEY_INTERVAL == 0) {
-			final DimensionInfo dimInfo = DimensionLibrary.getData(GameUtils.getWorld());
+			final Level world = GameUtils.getWorld();
+			final DimensionInfo dimInfo = DimensionLibrary.getData(world);
 			if (dimInfo.alwaysOutside()) {
 				this.reallyInside = false;
 			} else {
 				final BlockPos pos = CommonState.getPlayerPosition();
+				retain(pos);
+				final int playerHeight = Math.max(pos.getY() + 1, 0);
 				float score = 0.0F;
-				for (Cell cell : cells) score += cell.score(pos);
+				for (final Cell cell : cells) {
+					if (!hasCeiling(world, pos.getX() + cell.offset.getX(), pos.getZ() + cell.offset.getZ(), playerHeight))
+						score += cell.potentialPoints();
+				}
 				float ceilingCoverageRatio = 1.0F - (score / TOTAL_POINTS);
 				this.reallyInside = ceilingCoverageRatio > INSIDE_THRESHOLD;
 			}
@@ -109,11 +107,108 @@ public final class CeilingCoverage {
 		return this.reallyInside;
 	}
 
+	/**
+	 * Forgets what is known about the block column so that it is scanned again on the next survey.
+	 */
+	public void onBlockUpdate(@Nonnull final BlockPos pos) {
+		final Column column = this.columns.get(ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ())));
+		if (column != null)
+			column.reset(Column.index(pos.getX(), pos.getZ()));
+	}
+
+	public void clear() {
+		this.columns.clear();
+		this.lastChunk = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Determines if there is a block that acts as a ceiling in the column between the precipitation height and
+	 * the player's head.
+	 */
+	private boolean hasCeiling(@Nonnull final Level world, final int x, final int z, final int playerHeight) {
+		final int chunkX = SectionPos.blockToSectionCoord(x);
+		final int chunkZ = SectionPos.blockToSectionCoord(z);
+		final ChunkAccess chunk = world.getChunk(chunkX, chunkZ, ChunkStatus.FULL, false);
+		if (chunk == null)
+			return false;
+
+		final long key = ChunkPos.asLong(chunkX, chunkZ);
+		Column column = this.columns.get(key);
+		if (column == null || column.source != chunk) {
+			column = new Column(chunk);
+			this.columns.put(key, column);
+		}
+
+		final int idx = Column.index(x, z);
+		final int ceiling = column.ceiling[idx];
+		if (ceiling != Column.NONE)
+			return ceiling > playerHeight;
+
+		// Pick up the scan where it left off the last time, starting at the precipitation height for a new column
+		int y = column.next[idx];
+		if (y == Column.UNSCANNED)
+			y = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING, x & 15, z & 15) + 1;
+
+		this.working.set(x, y, z);
+		while (y > playerHeight) {
+			if (BlockStateUtil.actsAsCeiling(chunk.getBlockState(this.working.setY(y)))) {
+				column.ceiling[idx] = y;
+				return true;
+			}
+			y--;
+		}
+
+		column.next[idx] = y;
+		return false;
+	}
+
+	/**
+	 * Drops the columns of chunks that are not next to the one the player is in.
+	 */
+	private void retain(@Nonnull final BlockPos pos) {
+		final int chunkX = SectionPos.blockToSectionCoord(pos.getX());
+		final int chunkZ = SectionPos.blockToSectionCoord(pos.getZ());
+		final long current = ChunkPos.asLong(chunkX, chunkZ);
+		if (current == this.lastChunk)
+			return;
+		this.lastChunk = current;
+		this.columns.long2ObjectEntrySet().removeIf(e -> {
+			final long key = e.getLongKey();
+			return Math.abs(ChunkPos.getX(key) - chunkX) > 1 || Math.abs(ChunkPos.getZ(key) - chunkZ) > 1;
+		});
+	}
+
+	private static final class Column {
+
+		static final int NONE = Integer.MIN_VALUE;
+		static final int UNSCANNED = Integer.MAX_VALUE;
+
+		final ChunkAccess source;
+		// Y of the highest block acting as a ceiling, if one has been found
+		final int[] ceiling = new int[256];
+		// Y of the next block to check when scanning further down the column
+		final int[] next = new int[256];
+
+		Column(@Nonnull final ChunkAccess source) {
+			this.source = source;
+			Arrays.fill(this.ceiling, NONE);
+			Arrays.fill(this.next, UNSCANNED);
+		}
+
+		void reset(final int idx) {
+			this.ceiling[idx] = NONE;
+			this.next[idx] = UNSCANNED;
+		}
+
+		static int index(final int x, final int z) {
+			return ((z & 15) << 4) | (x & 15);
+		}
+	}
+
 	private static final class Cell implements Comparable<Cell> {
 
 		private final Vec3i offset;
 		private final float points;
-		private final BlockPos.MutableBlockPos working;
 
 		public Cell(@Nonnull final Vec3i offset, final int range) {
 			this.offset = offset;
@@ -121,43 +216,12 @@ public final class CeilingCoverage {
 			final float zV = range - MathStuff.abs(offset.getZ()) + 1;
 			final float candidate = Math.min(xV, zV);
 			this.points = candidate * candidate;
-			this.working = new BlockPos.MutableBlockPos();
 		}
 
 		public float potentialPoints() {
 			return this.points;
 		}
 
-		public float score(@Nonnull final BlockPos playerPos) {
-			this.working.set(
-					playerPos.getX() + this.offset.getX(),
-					playerPos.getY() + this.offset.getY(),
-					playerPos.getZ() + this.offset.getZ()
-			);
-
-			final Level world = GameUtils.getWorld();
-			final int playerHeight = Math.max(playerPos.getY() + 1, 0);
-
-			// Get the precipitation height
-			this.working.set(WorldUtils.getPrecipitationHeight(world, this.working));
-
-			// Scan down looking for blocks that are considered "cover"
-			while (this.working.getY() > playerHeight) {
-
-				final BlockState state = world.getBlockState(this.working);
-
-				if (actsAsCeiling(state)) {
-					// Cover block - no points for you!
-					return 0;
-				}
-
-				this.working.setY(this.working.getY() - 1);
-			}
-
-			// Scanned down to the players head and found nothing. So give the points.
-			return this.points;
-		}
-
 		@Override
 		public int compareTo(@Nonnull final Cell cell) {
 			// Want big scores first in the list
@@ -170,21 +234,6 @@ public final class CeilingCoverage {
 			return this.offset.toString() +
 					" points: " + this.points;
 		}
-
-		private boolean actsAsCeiling(@Nonnull final BlockState state) {
-			// If it doesn't block movement it doesn't count as a ceiling.
-			if (!state.getMaterial().blocksMotion())
-				return false;
-
-			// Test the block tags in our NON_CEILING set to see if any match
-			final Block block = state.getBlock();
-            ITagManager<Block> blockTags = ForgeRegistries.BLOCKS.tags();
-			for (final TagKey<Block> tagKey : NON_CEILING) {
-                if (blockTags.getTag(tagKey).contains(block))
-					return false;
-			}
-			return true;
-		}
 	}
 
 }
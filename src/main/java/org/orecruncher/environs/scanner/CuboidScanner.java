@@ -20,16 +20,21 @@ package org.orecruncher.environs.scanner;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import org.orecruncher.environs.library.BlockStateLibrary;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Random;
 
 /**
- * Scans the area around the player in a continuous pattern.
+ * Scans the area around the player in a continuous pattern.  Rather than
+ * visiting every block in the area the scanner walks an index of the
+ * interesting blocks in each chunk section, which is kept current from block
+ * updates.
  */
 @OnlyIn(Dist.CLIENT)
 public abstract class CuboidScanner extends Scanner {
@@ -37,11 +42,15 @@ public abstract class CuboidScanner extends Scanner {
 	// Iteration variables
 	protected boolean scanFinished = false;
 	protected Cuboid activeCuboid;
-	protected CuboidPointIterator fullRange;
+	protected IPointIterator fullRange;
+
+	// Index of the interesting blocks in the chunk sections around the player
+	protected final SectionBlockIndex index = new SectionBlockIndex(this::interestingBlock);
 
 	// State of last tick
 	protected BlockPos lastPos;
 	protected int lastReference = 0;
+	protected int lastGeneration = BlockStateLibrary.getGeneration();
 
 	protected CuboidScanner(@Nonnull final ScanContext locus, @Nonnull final String name, final int range,
 							final int blocksPerTick) {
@@ -84,7 +93,14 @@ public abstract class CuboidScanner extends Scanner {
 
 		final BlockPos[] points = getMinMaxPointsForVolume(this.lastPos);
 		this.activeCuboid = new Cuboid(points);
-		this.fullRange = new CuboidPointIterator(points);
+
+		final BlockGetter provider = this.locus.getWorld();
+		if (provider instanceof LevelReader) {
+			this.index.retain(this.activeCuboid);
+			this.fullRange = new SectionIndexPointIterator(this.index, (LevelReader) provider, this.activeCuboid, null);
+		} else {
+			this.fullRange = new CuboidPointIterator(points);
+		}
 	}
 
 	@Override
@@ -95,10 +111,20 @@ public abstract class CuboidScanner extends Scanner {
 		if (playerPos.getY() < -64) {
 			this.fullRange = null;
 		} else {
+			// If the block configuration was reloaded what was indexed may no
+			// longer be interesting
+			if (BlockStateLibrary.getGeneration() != this.lastGeneration) {
+				this.lastGeneration = BlockStateLibrary.getGeneration();
+				this.index.clear();
+				this.fullRange = null;
+			}
+
 			// If the full range was reset, or the player dimension changed,
 			// dump
 			// everything and restart.
 			if (this.fullRange == null || this.locus.getReference() != this.lastReference) {
+				if (this.locus.getReference() != this.lastReference)
+					this.index.clear();
 				resetFullScan();
 				super.tick();
 			} else if (this.lastPos.equals(playerPos)) {
@@ -159,9 +185,12 @@ public abstract class CuboidScanner extends Scanner {
 			@Nonnull final Cuboid intersect) {
 
 		final BlockGetter provider = this.locus.getWorld();
+		final LevelReader reader = provider instanceof LevelReader ? (LevelReader) provider : null;
 
 		if (doBlockUnscan()) {
-			final ComplementsPointIterator newOutOfRange = new ComplementsPointIterator(oldVolume, intersect);
+			final IPointIterator newOutOfRange = reader != null
+					? new SectionIndexPointIterator(this.index, reader, oldVolume, intersect)
+					: new ComplementsPointIterator(oldVolume, intersect);
 			// Notify on the blocks going out of range
 			for (BlockPos point = newOutOfRange.next(); point != null; point = newOutOfRange.next()) {
 				if (point.getY() > 0) {
@@ -173,7 +202,9 @@ public abstract class CuboidScanner extends Scanner {
 		}
 
 		// Notify on blocks coming into range
-		final ComplementsPointIterator newInRange = new ComplementsPointIterator(newVolume, intersect);
+		final IPointIterator newInRange = reader != null
+				? new SectionIndexPointIterator(this.index, reader, newVolume, intersect)
+				: new ComplementsPointIterator(newVolume, intersect);
 		for (BlockPos point = newInRange.next(); point != null; point = newInRange.next()) {
 			if (point.getY() > 0) {
 				final BlockState state = provider.getBlockState(point);
@@ -182,6 +213,9 @@ public abstract class CuboidScanner extends Scanner {
 			}
 		}
 
+		if (reader != null)
+			this.index.retain(newVolume);
+
 		this.scanFinished = true;
 	}
 
@@ -228,8 +262,9 @@ public abstract class CuboidScanner extends Scanner {
 
 	public void onBlockUpdate(@Nonnull final BlockPos pos) {
 		try {
+			final BlockState state = this.locus.getWorld().getBlockState(pos);
+			this.index.update(pos, state);
 			if (this.activeCuboid != null && this.activeCuboid.contains(pos)) {
-				final BlockState state = this.locus.getWorld().getBlockState(pos);
 				if (isInteresting(pos, state)) {
 					blockScan(state, pos, this.random);
 				}
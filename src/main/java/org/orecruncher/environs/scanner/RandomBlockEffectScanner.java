@@ -56,7 +56,7 @@ public class RandomBlockEffectScanner extends RandomScanner {
 
 	@Override
 	protected boolean interestingBlock(@Nonnull final BlockState state) {
-		return BlockStateUtil.getData(state).hasSoundsOrEffects();
+		return BlockStateUtil.hasSoundsOrEffects(state);
 	}
 
 	@Override
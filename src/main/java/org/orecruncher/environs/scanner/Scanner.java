@@ -18,6 +18,7 @@
 
 package org.orecruncher.environs.scanner;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.BlockGetter;
@@ -26,6 +27,7 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.Material;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.random.XorShiftRandom;
 
 import javax.annotation.Nonnull;
@@ -64,6 +66,10 @@ public abstract class Scanner {
 	protected final Random random = new XorShiftRandom();
 	protected final BlockPos.MutableBlockPos workingPos = new BlockPos.MutableBlockPos();
 
+	// Blocks of interest found by survey() that are waiting on apply()
+	private final LongArrayList surveyedPos = new LongArrayList();
+	private final ObjectArray<BlockState> surveyedState = new ObjectArray<>();
+
 	public Scanner(@Nonnull final ScanContext locus, @Nonnull final String name, final int range) {
 		this(locus, name, range, 0);
 	}
@@ -149,6 +155,43 @@ public abstract class Scanner {
 
 	}
 
+	/**
+	 * Read only half of tick().  Finds the blocks of interest in the provided world and holds on to them until
+	 * apply() is called.  Can be run off the client thread against a snapshot of the world as long as preScan(),
+	 * nextPos() and interestingBlock() do not touch the live world, and nothing else uses the scanner until it
+	 * completes.
+	 */
+	public void survey(@Nonnull final BlockGetter provider) {
+
+		preScan();
+
+		for (int count = 0; count < this.blocksPerTick; count++) {
+			final BlockPos pos = nextPos(this.workingPos, this.random);
+			if (pos == null)
+				break;
+			final BlockState state = provider.getBlockState(pos);
+			if (BLOCKSTATES_TO_IGNORE.contains(state))
+				continue;
+			if (interestingBlock(state)) {
+				this.surveyedPos.add(pos.asLong());
+				this.surveyedState.add(state);
+			}
+		}
+
+		postScan();
+
+	}
+
+	/**
+	 * Invokes blockScan() for the blocks found by the last survey().  Must be called on the client thread.
+	 */
+	public void apply() {
+		for (int i = 0; i < this.surveyedPos.size(); i++)
+			blockScan(this.surveyedState.get(i), this.workingPos.set(this.surveyedPos.getLong(i)), this.random);
+		this.surveyedPos.clear();
+		this.surveyedState.clear();
+	}
+
 	/**
 	 * Provide the next block position to be processed. For memory efficiency the
 	 * provided mutable should be used to store the coordinate information and
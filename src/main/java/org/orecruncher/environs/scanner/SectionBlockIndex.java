@@ -0,0 +1,172 @@
+/*
+ *  Dynamic Surroundings: Environs
+ *  Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.environs.scanner;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.function.Predicate;
+
+/**
+ * Index of the "interesting" block positions within chunk sections.  A section is indexed the first time it is
+ * queried, and the palette of the section is checked before walking its blocks so sections that cannot contain an
+ * interesting block are indexed for free.  Block updates keep the index current, and a section is indexed again
+ * if the chunk it belongs to has been reloaded.  Must only be used from the client thread.
+ */
+@OnlyIn(Dist.CLIENT)
+public class SectionBlockIndex {
+
+	private static final ShortArrayList EMPTY = new ShortArrayList(0);
+
+	private final Predicate<BlockState> filter;
+	private final Long2ObjectOpenHashMap<Entry> sections = new Long2ObjectOpenHashMap<>(256);
+
+	public SectionBlockIndex(@Nonnull final Predicate<BlockState> filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Obtains the positions of the interesting blocks in the section, indexing the section if needed.  The
+	 * positions are packed local coordinates; see localX(), localY() and localZ().
+	 *
+	 * @return List of packed positions, or null if the chunk holding the section is not loaded
+	 */
+	@Nullable
+	public ShortArrayList getCandidates(@Nonnull final LevelReader world, final int sectionX, final int sectionY, final int sectionZ) {
+		final ChunkAccess chunk = world.getChunk(sectionX, sectionZ, ChunkStatus.FULL, false);
+		if (chunk == null)
+			return null;
+
+		final LevelChunkSection[] chunkSections = chunk.getSections();
+		final int idx = world.getSectionIndexFromSectionY(sectionY);
+		if (idx < 0 || idx >= chunkSections.length)
+			return EMPTY;
+
+		final LevelChunkSection section = chunkSections[idx];
+		final long key = SectionPos.asLong(sectionX, sectionY, sectionZ);
+		Entry entry = this.sections.get(key);
+		if (entry == null || entry.source != section) {
+			entry = new Entry(section, index(section));
+			this.sections.put(key, entry);
+		}
+		return entry.positions;
+	}
+
+	/**
+	 * Updates the index for a block that has changed.  Sections that have not been indexed are left alone since
+	 * they will pick up the change when they are indexed.
+	 */
+	public void update(@Nonnull final BlockPos pos, @Nonnull final BlockState state) {
+		final Entry entry = this.sections.get(SectionPos.asLong(
+				SectionPos.blockToSectionCoord(pos.getX()),
+				SectionPos.blockToSectionCoord(pos.getY()),
+				SectionPos.blockToSectionCoord(pos.getZ())));
+		if (entry == null)
+			return;
+
+		final short packed = pack(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+		if (this.filter.test(state)) {
+			if (!entry.positions.contains(packed)) {
+				if (entry.positions == EMPTY)
+					entry.positions = new ShortArrayList(4);
+				entry.positions.add(packed);
+			}
+		} else {
+			entry.positions.rem(packed);
+		}
+	}
+
+	/**
+	 * Drops the index of sections that are outside of the volume.
+	 */
+	public void retain(@Nonnull final Cuboid volume) {
+		final int minX = SectionPos.blockToSectionCoord(volume.minimum().getX());
+		final int minY = SectionPos.blockToSectionCoord(volume.minimum().getY());
+		final int minZ = SectionPos.blockToSectionCoord(volume.minimum().getZ());
+		final int maxX = SectionPos.blockToSectionCoord(volume.maximum().getX());
+		final int maxY = SectionPos.blockToSectionCoord(volume.maximum().getY());
+		final int maxZ = SectionPos.blockToSectionCoord(volume.maximum().getZ());
+		this.sections.long2ObjectEntrySet().removeIf(e -> {
+			final long key = e.getLongKey();
+			final int x = SectionPos.x(key);
+			final int y = SectionPos.y(key);
+			final int z = SectionPos.z(key);
+			return x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ;
+		});
+	}
+
+	public void clear() {
+		this.sections.clear();
+	}
+
+	public static int localX(final short packed) {
+		return packed & 15;
+	}
+
+	public static int localY(final short packed) {
+		return (packed >> 8) & 15;
+	}
+
+	public static int localZ(final short packed) {
+		return (packed >> 4) & 15;
+	}
+
+	private static short pack(final int x, final int y, final int z) {
+		return (short) ((y << 8) | (z << 4) | x);
+	}
+
+	@Nonnull
+	private ShortArrayList index(@Nullable final LevelChunkSection section) {
+		if (section == null || section.hasOnlyAir() || !section.getStates().maybeHas(this.filter))
+			return EMPTY;
+
+		ShortArrayList result = EMPTY;
+		for (int y = 0; y < 16; y++)
+			for (int z = 0; z < 16; z++)
+				for (int x = 0; x < 16; x++) {
+					if (this.filter.test(section.getBlockState(x, y, z))) {
+						if (result == EMPTY)
+							result = new ShortArrayList();
+						result.add(pack(x, y, z));
+					}
+				}
+		return result;
+	}
+
+	private static final class Entry {
+		final LevelChunkSection source;
+		ShortArrayList positions;
+
+		Entry(@Nullable final LevelChunkSection source, @Nonnull final ShortArrayList positions) {
+			this.source = source;
+			this.positions = positions;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ *  Dynamic Surroundings: Environs
+ *  Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.environs.scanner;
+
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.LevelReader;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Implements a "peeking" iterator over the candidate positions in a SectionBlockIndex that fall within a volume.
+ * An optional exclusion volume allows iterating the space of one cuboid that is not in another, such as the blocks
+ * that came into range as the player moved.  The iterator uses mutables for position so they
+ * aren't safe to cache.
+ */
+@OnlyIn(Dist.CLIENT)
+public class SectionIndexPointIterator implements IPointIterator {
+
+	protected final SectionBlockIndex index;
+	protected final LevelReader world;
+	protected final BlockPos min;
+	protected final BlockPos max;
+	@Nullable
+	protected final Cuboid exclude;
+
+	protected final int minSectionX;
+	protected final int minSectionY;
+	protected final int maxSectionX;
+	protected final int maxSectionY;
+	protected final int maxSectionZ;
+
+	// Section being iterated
+	protected int sectionX;
+	protected int sectionY;
+	protected int sectionZ;
+	protected ShortArrayList candidates;
+	protected int candidate;
+
+	protected final BlockPos.MutableBlockPos current = new BlockPos.MutableBlockPos();
+	protected final BlockPos.MutableBlockPos peeked = new BlockPos.MutableBlockPos();
+	protected boolean hasPeeked;
+
+	public SectionIndexPointIterator(@Nonnull final SectionBlockIndex index, @Nonnull final LevelReader world,
+									 @Nonnull final Cuboid volume, @Nullable final Cuboid exclude) {
+		this.index = index;
+		this.world = world;
+		this.min = volume.minimum();
+		this.max = volume.maximum();
+		this.exclude = exclude;
+
+		this.minSectionX = SectionPos.blockToSectionCoord(this.min.getX());
+		this.minSectionY = SectionPos.blockToSectionCoord(this.min.getY());
+		this.maxSectionX = SectionPos.blockToSectionCoord(this.max.getX());
+		this.maxSectionY = SectionPos.blockToSectionCoord(this.max.getY());
+		this.maxSectionZ = SectionPos.blockToSectionCoord(this.max.getZ());
+
+		this.sectionX = this.minSectionX;
+		this.sectionY = this.minSectionY;
+		this.sectionZ = SectionPos.blockToSectionCoord(this.min.getZ());
+		this.candidates = index.getCandidates(world, this.sectionX, this.sectionY, this.sectionZ);
+
+		advance();
+	}
+
+	@Override
+	@Nullable
+	public BlockPos next() {
+		if (!this.hasPeeked)
+			return null;
+		this.current.set(this.peeked);
+		advance();
+		return this.current;
+	}
+
+	@Override
+	@Nullable
+	public BlockPos peek() {
+		return this.hasPeeked ? this.peeked : null;
+	}
+
+	protected void advance() {
+		this.hasPeeked = false;
+		while (true) {
+			if (this.candidates != null) {
+				final int baseX = SectionPos.sectionToBlockCoord(this.sectionX);
+				final int baseY = SectionPos.sectionToBlockCoord(this.sectionY);
+				final int baseZ = SectionPos.sectionToBlockCoord(this.sectionZ);
+				while (this.candidate < this.candidates.size()) {
+					final short packed = this.candidates.getShort(this.candidate++);
+					this.peeked.set(
+							baseX + SectionBlockIndex.localX(packed),
+							baseY + SectionBlockIndex.localY(packed),
+							baseZ + SectionBlockIndex.localZ(packed));
+					if (accept(this.peeked)) {
+						this.hasPeeked = true;
+						return;
+					}
+				}
+			}
+
+			if (!nextSection())
+				return;
+		}
+	}
+
+	protected boolean accept(@Nonnull final BlockPos pos) {
+		if (pos.getX() < this.min.getX() || pos.getX() > this.max.getX()
+				|| pos.getY() < this.min.getY() || pos.getY() > this.max.getY()
+				|| pos.getZ() < this.min.getZ() || pos.getZ() > this.max.getZ())
+			return false;
+		return this.exclude == null || !this.exclude.contains(pos);
+	}
+
+	protected boolean nextSection() {
+		if (++this.sectionY > this.maxSectionY) {
+			this.sectionY = this.minSectionY;
+			if (++this.sectionX > this.maxSectionX) {
+				this.sectionX = this.minSectionX;
+				if (++this.sectionZ > this.maxSectionZ)
+					return false;
+			}
+		}
+		this.candidates = this.index.getCandidates(this.world, this.sectionX, this.sectionY, this.sectionZ);
+		this.candidate = 0;
+		return true;
+	}
+
+}
@@ -25,6 +25,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Random;
+import java.util.function.Consumer;
 
 /**
  * Classic WeightTable for random weighted selection.
@@ -94,6 +95,10 @@ public class WeightTable<T> {
         return selected.getItem();
     }
 
+    public void forEach(@Nonnull final Consumer<? super T> consumer) {
+        this.entries.forEach(e -> consumer.accept(e.getItem()));
+    }
+
     public void trim() {
         this.entries.trim();
     }
@@ -123,6 +123,19 @@ public class BiomeUtilities {
         return getClientBiome(biome);
     }
 
+    /**
+     * Obtains the biome stored for a quart (4x4x4 block cell) of the client world.  Unlike getClientBiome(BlockPos)
+     * the value is not fuzzed with the neighboring quarts, so it is the same for every block in the quart.
+     */
+    @Nullable
+    public static Biome getClientNoiseBiome(final int quartX, final int quartY, final int quartZ) {
+        final ClientLevel world = GameUtils.getWorld();
+        if (world == null)
+            return RegistryAccess.BUILTIN.get().registryOrThrow(Registry.BIOME_REGISTRY).get(Biomes.THE_VOID);
+        final Biome biome = world.getNoiseBiome(quartX, quartY, quartZ).value();
+        return getClientBiome(biome);
+    }
+
     @Nullable
     public static Biome getClientBiome(@Nonnull final Biome biome) {
         final ClientLevel world = GameUtils.getWorld();
@@ -29,61 +29,148 @@ import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.phys.shapes.CollisionContext;
 import net.minecraft.world.phys.shapes.VoxelShape;
+import org.orecruncher.lib.world.WorldSnapshot;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 /**
  * Block ray trace and context rolled into one!  With some optimizations specific to blocks.  These routines are
- * based on what the Minecraft raytrace algorithms do.  Pretty standard voxel based ray trace.
+ * based on what the Minecraft raytrace algorithms do.  Pretty standard voxel based ray trace.  When tracing against
+ * a WorldSnapshot the trace will leap over empty regions and resolve hits on solid cubes directly.
+ *
+ * Traces can be made with primitive coordinates, with results reported in a reusable Hit.  Doing so avoids
+ * allocation unless a block shape has to be consulted by way of the VoxelShape routines.
  */
 public class BlockRayTrace {
 
     private static final double NUDGE = -1.0E-7D;
 
-    final BlockGetter world;
+    BlockGetter world;
+    @Nullable
+    WorldSnapshot snapshot;
     final ClipContext.Block blockMode;
     final ClipContext.Fluid fluidMode;
     final CollisionContext selectionCtx;
 
     // Can be changed dynamically to avoid recreating contexts
-    Vec3 start;
-    Vec3 end;
+    private double startX;
+    private double startY;
+    private double startZ;
+    private double endX;
+    private double endY;
+    private double endZ;
+
+    // Vector forms of the start/end points.  Created on demand when needed for the VoxelShape routines.
+    @Nullable
+    private Vec3 start;
+    @Nullable
+    private Vec3 end;
+
+    private final Hit scratch = new Hit();
 
     public BlockRayTrace(@Nonnull final BlockGetter world, @Nonnull final ClipContext.Block bm, @Nonnull final ClipContext.Fluid fm) {
         this(world, Vec3.ZERO, Vec3.ZERO, bm, fm);
     }
 
     public BlockRayTrace(@Nonnull final BlockGetter world, @Nonnull final Vec3 start, @Nonnull final Vec3 end, @Nonnull final ClipContext.Block bm, @Nonnull final ClipContext.Fluid fm) {
-        this.world = world;
-        this.start = start;
-        this.end = end;
+        setWorld(world);
+        setStart(start);
+        setEnd(end);
         this.blockMode = bm;
         this.fluidMode = fm;
         this.selectionCtx = CollisionContext.empty();
     }
 
+    /**
+     * Changes the world that is being traced.  Allows a context to be reused across ticks.
+     *
+     * @param world The world to trace
+     */
+    public void setWorld(@Nonnull final BlockGetter world) {
+        this.world = world;
+        this.snapshot = world instanceof WorldSnapshot ? (WorldSnapshot) world : null;
+    }
+
+    @Nonnull
+    public Vec3 getStart() {
+        if (this.start == null)
+            this.start = new Vec3(this.startX, this.startY, this.startZ);
+        return this.start;
+    }
+
+    public void setStart(@Nonnull final Vec3 start) {
+        this.startX = start.x;
+        this.startY = start.y;
+        this.startZ = start.z;
+        this.start = start;
+    }
+
+    @Nonnull
+    public Vec3 getEnd() {
+        if (this.end == null)
+            this.end = new Vec3(this.endX, this.endY, this.endZ);
+        return this.end;
+    }
+
+    public void setEnd(@Nonnull final Vec3 end) {
+        this.endX = end.x;
+        this.endY = end.y;
+        this.endZ = end.z;
+        this.end = end;
+    }
+
     @Nonnull
     public BlockHitResult trace() {
-        return traceLoop();
+        traceLoop(this.scratch);
+        return toResult(this.scratch);
     }
 
     @Nonnull
     public BlockHitResult trace(@Nonnull final Vec3 start, @Nonnull final Vec3 end) {
-        this.start = start;
-        this.end = end;
-        return traceLoop();
+        setStart(start);
+        setEnd(end);
+        return trace();
+    }
+
+    /**
+     * Traces between the two points, placing the result in the provided Hit.
+     *
+     * @return true if a block was hit, false otherwise
+     */
+    public boolean trace(final double sx, final double sy, final double sz, final double ex, final double ey, final double ez, @Nonnull final Hit hit) {
+        this.startX = sx;
+        this.startY = sy;
+        this.startZ = sz;
+        this.endX = ex;
+        this.endY = ey;
+        this.endZ = ez;
+        this.start = null;
+        this.end = null;
+        return traceLoop(hit);
     }
 
     @Nonnull
-    private BlockHitResult traceLoop() {
-        if (this.start.equals(this.end)) {
-            return miss();
+    private BlockHitResult toResult(@Nonnull final Hit hit) {
+        if (!hit.isHit) {
+            final Vec3 directionVec = getStart().subtract(getEnd());
+            return BlockHitResult.miss(getEnd(), Direction.getNearest(directionVec.x, directionVec.y, directionVec.z), new BlockPos(getEnd()));
+        }
+        // The VoxelShape routines capture the position they are given, which is the reused mutable position
+        if (hit.result != null)
+            return hit.result.withPosition(hit.pos.immutable());
+        return new BlockHitResult(new Vec3(hit.x, hit.y, hit.z), hit.face, hit.pos.immutable(), false);
+    }
+
+    private boolean traceLoop(@Nonnull final Hit hit) {
+        hit.result = null;
+        if (this.startX == this.endX && this.startY == this.endY && this.startZ == this.endZ) {
+            return miss(hit);
         } else {
 
-            final double lerpX = Mth.lerp(NUDGE, this.start.x, this.end.x);
-            final double lerpY = Mth.lerp(NUDGE, this.start.y, this.end.y);
-            final double lerpZ = Mth.lerp(NUDGE, this.start.z, this.end.z);
+            final double lerpX = Mth.lerp(NUDGE, this.startX, this.endX);
+            final double lerpY = Mth.lerp(NUDGE, this.startY, this.endY);
+            final double lerpZ = Mth.lerp(NUDGE, this.startZ, this.endZ);
 
             int posX = Mth.floor(lerpX);
             int posY = Mth.floor(lerpY);
@@ -92,13 +179,15 @@ public class BlockRayTrace {
             // Do a quick check on the first block.  If there is a hit return
             // that result.  Else, traverse the line segment between start and end
             // points until a hit.
-            BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos(posX, posY, posZ);
-            BlockHitResult traceResult = hitCheck(mutablePos);
-            if (traceResult == null) {
+            final BlockPos.MutableBlockPos mutablePos = hit.pos.set(posX, posY, posZ);
+            boolean isHit = false;
+            if (this.snapshot == null || this.snapshot.getEmptyExtent(posX, posY, posZ) == WorldSnapshot.OCCUPIED)
+                isHit = hitCheck(mutablePos, hit);
+            if (!isHit) {
                 // No hit.  Do the calcs to traverse the line
-                final double xLerp = Mth.lerp(NUDGE, this.end.x, this.start.x);
-                final double yLerp = Mth.lerp(NUDGE, this.end.y, this.start.y);
-                final double zLerp = Mth.lerp(NUDGE, this.end.z, this.start.z);
+                final double xLerp = Mth.lerp(NUDGE, this.endX, this.startX);
+                final double yLerp = Mth.lerp(NUDGE, this.endY, this.startY);
+                final double zLerp = Mth.lerp(NUDGE, this.endZ, this.startZ);
                 final double lenX = xLerp - lerpX;
                 final double lenY = yLerp - lerpY;
                 final double lenZ = zLerp - lerpZ;
@@ -118,40 +207,137 @@ public class BlockRayTrace {
                 do {
                     // Reached the end of the line?
                     if (X > 1.0D && Y > 1.0D && Z > 1.0D) {
-                        return miss();
+                        return miss(hit);
                     }
 
-                    // Delta the axis that needs to be advanced.
+                    // Delta the axis that needs to be advanced.  Remember where the boundary was crossed in case
+                    // the next block is a solid cube.
+                    final double crossing;
+                    final Direction face;
                     if (X < Y) {
                         if (X < Z) {
+                            crossing = X;
+                            face = dirX > 0 ? Direction.WEST : Direction.EAST;
                             posX += dirX;
                             X += deltaX;
                         } else {
+                            crossing = Z;
+                            face = dirZ > 0 ? Direction.NORTH : Direction.SOUTH;
                             posZ += dirZ;
                             Z += deltaZ;
                         }
                     } else if (Y < Z) {
+                        crossing = Y;
+                        face = dirY > 0 ? Direction.DOWN : Direction.UP;
                         posY += dirY;
                         Y += deltaY;
                     } else {
+                        crossing = Z;
+                        face = dirZ > 0 ? Direction.NORTH : Direction.SOUTH;
                         posZ += dirZ;
                         Z += deltaZ;
                     }
 
-                    // Check for a hit.  If null is returned loop back around.
-                    traceResult = hitCheck(mutablePos.set(posX, posY, posZ));
-                } while (traceResult == null);
+                    if (this.snapshot != null) {
+                        final int extent = this.snapshot.getEmptyExtent(posX, posY, posZ);
+                        if (extent > 0) {
+                            // Leap to the far side of the empty region.  Every axis is advanced past the crossings
+                            // that occur before the ray exits the region.
+                            final int mask = ~((1 << extent) - 1);
+                            final int minX = posX & mask;
+                            final int minY = posY & mask;
+                            final int minZ = posZ & mask;
+                            final int size = (1 << extent) - 1;
+                            final double exitX = dirX == 0 ? Double.MAX_VALUE : X + (dirX > 0 ? minX + size - posX : posX - minX) * deltaX;
+                            final double exitY = dirY == 0 ? Double.MAX_VALUE : Y + (dirY > 0 ? minY + size - posY : posY - minY) * deltaY;
+                            final double exitZ = dirZ == 0 ? Double.MAX_VALUE : Z + (dirZ > 0 ? minZ + size - posZ : posZ - minZ) * deltaZ;
+                            final double exit = Math.min(exitX, Math.min(exitY, exitZ));
+                            if (exit > 1.0D)
+                                return miss(hit);
+                            if (X <= exit) {
+                                final int steps = (int) ((exit - X) / deltaX) + 1;
+                                posX += dirX * steps;
+                                X += deltaX * steps;
+                            }
+                            if (Y <= exit) {
+                                final int steps = (int) ((exit - Y) / deltaY) + 1;
+                                posY += dirY * steps;
+                                Y += deltaY * steps;
+                            }
+                            if (Z <= exit) {
+                                final int steps = (int) ((exit - Z) / deltaZ) + 1;
+                                posZ += dirZ * steps;
+                                Z += deltaZ * steps;
+                            }
+                            final Direction exitFace;
+                            if (exit == exitX)
+                                exitFace = dirX > 0 ? Direction.WEST : Direction.EAST;
+                            else if (exit == exitY)
+                                exitFace = dirY > 0 ? Direction.DOWN : Direction.UP;
+                            else
+                                exitFace = dirZ > 0 ? Direction.NORTH : Direction.SOUTH;
+                            if (this.snapshot.getEmptyExtent(posX, posY, posZ) == WorldSnapshot.OCCUPIED)
+                                isHit = occupiedCheck(mutablePos.set(posX, posY, posZ), exit, exitFace, lerpX, lerpY, lerpZ, lenX, lenY, lenZ, hit);
+                        } else if (extent == WorldSnapshot.OCCUPIED) {
+                            isHit = occupiedCheck(mutablePos.set(posX, posY, posZ), crossing, face, lerpX, lerpY, lerpZ, lenX, lenY, lenZ, hit);
+                        }
+                        continue;
+                    }
+
+                    // Check for a hit.  If not loop back around.
+                    isHit = hitCheck(mutablePos.set(posX, posY, posZ), hit);
+                } while (!isHit);
 
             }
-            // Return whatever result we have
-            return traceResult;
+            // Hit is filled in with the result
+            return true;
         }
     }
 
-    @Nonnull
-    private BlockHitResult miss() {
-        final Vec3 directionVec = this.start.subtract(this.end);
-        return BlockHitResult.miss(this.end, Direction.getNearest(directionVec.x, directionVec.y, directionVec.z), new BlockPos(this.end));
+    private boolean miss(@Nonnull final Hit hit) {
+        hit.isHit = false;
+        hit.result = null;
+        hit.x = this.endX;
+        hit.y = this.endY;
+        hit.z = this.endZ;
+        hit.face = null;
+        return false;
+    }
+
+    // Check an occupied block position of the snapshot.  Solid cubes are hit on the face that the ray crossed to
+    // enter the block; anything else goes through the normal shape checks.
+    private boolean occupiedCheck(@Nonnull final BlockPos.MutableBlockPos pos, final double crossing, @Nonnull final Direction face,
+                                  final double x, final double y, final double z,
+                                  final double lenX, final double lenY, final double lenZ,
+                                  @Nonnull final Hit hit) {
+        assert this.snapshot != null;
+        if (this.snapshot.isSolidCube(pos.getX(), pos.getY(), pos.getZ())) {
+            hit.isHit = true;
+            hit.result = null;
+            hit.x = x + lenX * crossing;
+            hit.y = y + lenY * crossing;
+            hit.z = z + lenZ * crossing;
+            hit.face = face;
+            return true;
+        }
+        return hitCheck(pos, hit);
+    }
+
+    // Runs the block through the VoxelShape checks and, if there is a hit, fills in the Hit from the result.  The
+    // position of the Hit is updated to match the result.
+    private boolean hitCheck(@Nonnull final BlockPos.MutableBlockPos pos, @Nonnull final Hit hit) {
+        final BlockHitResult result = hitCheck(pos);
+        if (result == null)
+            return false;
+        final Vec3 location = result.getLocation();
+        hit.isHit = true;
+        hit.result = result;
+        hit.x = location.x;
+        hit.y = location.y;
+        hit.z = location.z;
+        hit.face = result.getDirection();
+        pos.set(result.getBlockPos());
+        return true;
     }
 
     // Fast path an empty air block as much as possible.  For tracing this would be the most common block
@@ -166,7 +352,7 @@ public class BlockRayTrace {
         if (!state.isAir()) {
             final VoxelShape voxelShape = this.blockMode.get(state, this.world, pos, this.selectionCtx);
             if (!voxelShape.isEmpty())
-                traceResult = this.world.clipWithInteractionOverride(this.start, this.end, pos, voxelShape, state);
+                traceResult = this.world.clipWithInteractionOverride(getStart(), getEnd(), pos, voxelShape, state);
         }
 
         // Handle it's fluid state
@@ -175,7 +361,7 @@ public class BlockRayTrace {
         if (!fluidState.isEmpty() && this.fluidMode.canPick(fluidState)) {
             final VoxelShape voxelFluidShape = state.getShape(this.world, pos);
             if (!voxelFluidShape.isEmpty())
-                fluidTraceResult = voxelFluidShape.clip(this.start, this.end, pos);
+                fluidTraceResult = voxelFluidShape.clip(getStart(), getEnd(), pos);
         }
 
         // No results for either
@@ -190,8 +376,30 @@ public class BlockRayTrace {
 
         // Get the closest.  It is possible to encounter the water before the solid, like a fence post that is
         // water logged.
-        final double blockDistance = this.start.distanceToSqr(traceResult.getLocation());
-        final double fluidDistance = this.start.distanceToSqr(fluidTraceResult.getLocation());
+        final double blockDistance = getStart().distanceToSqr(traceResult.getLocation());
+        final double fluidDistance = getStart().distanceToSqr(fluidTraceResult.getLocation());
         return blockDistance <= fluidDistance ? traceResult : fluidTraceResult;
     }
+
+    /**
+     * Mutable result of a trace.  Can be reused between traces to avoid allocation.
+     */
+    public static final class Hit {
+        /**
+         * Indicates if a block was hit.  If false the location is the end point of the trace.
+         */
+        public boolean isHit;
+        public double x;
+        public double y;
+        public double z;
+        /**
+         * Face of the block that was hit.  Null if there was no hit.
+         */
+        @Nullable
+        public Direction face;
+        public final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        // Result from the VoxelShape checks, if that is where the hit came from
+        @Nullable
+        BlockHitResult result;
+    }
 }
@@ -41,8 +41,8 @@ public class RayTraceIterator implements Iterator<BlockHitResult> {
 
     public RayTraceIterator(@Nonnull final BlockRayTrace traceContext) {
         this.traceContext = traceContext;
-        this.targetBlock = new BlockPos(traceContext.end);
-        this.normal = MathStuff.normalize(traceContext.start, traceContext.end);
+        this.targetBlock = new BlockPos(traceContext.getEnd());
+        this.normal = MathStuff.normalize(traceContext.getStart(), traceContext.getEnd());
         doTrace();
     }
 
@@ -65,7 +65,7 @@ public class RayTraceIterator implements Iterator<BlockHitResult> {
         if (this.hitResult == null || this.hitResult.getType() == HitResult.Type.MISS)
             throw new IllegalStateException("No more blocks in trace");
         final BlockHitResult result = this.hitResult;
-        this.traceContext.start = this.hitResult.getLocation().add(this.normal);
+        this.traceContext.setStart(this.hitResult.getLocation().add(this.normal));
         doTrace();
         return result;
     }
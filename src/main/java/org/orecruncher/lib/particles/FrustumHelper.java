@@ -49,7 +49,25 @@ public class FrustumHelper {
      * @return true if in the frustum, or there is no frustum, false otherwise
      */
     public static boolean isLocationInFrustum(@Nonnull final Vec3 pos) {
-        return isBoundingBoxInFrustum(new AABB(pos, pos));
+        return isLocationInFrustum(pos.x, pos.y, pos.z);
+    }
+
+    /**
+     * Determines if the position is within the frustum.  Does not allocate so it can be used per particle per frame.
+     * @return true if in the frustum, or there is no frustum, false otherwise
+     */
+    public static boolean isLocationInFrustum(final double x, final double y, final double z) {
+        return isBoxInFrustum(x, y, z, x, y, z);
+    }
+
+    /**
+     * Determines if the box described by the coordinates is within the frustum.  Does not allocate.
+     * @return true if in the frustum, or there is no frustum, false otherwise
+     */
+    public static boolean isBoxInFrustum(final double minX, final double minY, final double minZ, final double maxX, final double maxY, final double maxZ) {
+        if (helper == null)
+            return true;
+        return ((IMixinFrustum) helper).isBoxVisible(minX, minY, minZ, maxX, maxY, maxZ);
     }
 
     public static boolean isBoundingBoxInFrustum(@Nonnull final AABB bb) {
@@ -60,4 +60,19 @@ public interface IParticleMote {
     @Nonnull
     Vec3 getPosition();
 
+    /**
+     * Obtains the X coordinate of the mote without allocating a Vec3
+     */
+    double getX();
+
+    /**
+     * Obtains the Y coordinate of the mote without allocating a Vec3
+     */
+    double getY();
+
+    /**
+     * Obtains the Z coordinate of the mote without allocating a Vec3
+     */
+    double getZ();
+
 }
\ No newline at end of file
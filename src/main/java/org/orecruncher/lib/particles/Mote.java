@@ -69,6 +69,21 @@ public abstract class Mote implements IParticleMote {
         return new Vec3(this.posX, this.posY, this.posZ);
     }
 
+    @Override
+    public double getX() {
+        return this.posX;
+    }
+
+    @Override
+    public double getY() {
+        return this.posY;
+    }
+
+    @Override
+    public double getZ() {
+        return this.posZ;
+    }
+
     public void configureColor() {
         this.red = this.green = this.blue = this.alpha = 1F;
     }
@@ -32,7 +32,7 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
 import javax.annotation.Nonnull;
-import java.util.Optional;
+import javax.annotation.Nullable;
 
 /**
  * A particle that is capable of moving it's position in the world.
@@ -79,15 +79,15 @@ public abstract class MotionMote extends AgeableMote {
 	/**
 	 * Detects when a particle collides with a non-air block.  Override to provide custom detection logic.
 	 *
-	 * @return Instance containing collision information if the mote collided
+	 * @return Instance containing collision information if the mote collided, null otherwise
 	 */
-	@Nonnull
-	protected Optional<ParticleCollisionResult> detectCollision() {
+	@Nullable
+	protected ParticleCollisionResult detectCollision() {
 		final BlockState state = this.world.getBlockState(this.position);
 
 		// Air does not collide
 		if (state.getMaterial() == Material.AIR)
-			return Optional.empty();
+			return null;
 
 		// Check fluid state because the particle could have landed in fluid
 		final FluidState fluid = state.getFluidState();
@@ -96,13 +96,13 @@ public abstract class MotionMote extends AgeableMote {
 			final double height = fluid.getHeight(this.world, this.position) + this.position.getY();
 			if (height >= this.posY) {
 				// Hit the surface of liquid
-				return Optional.of(new ParticleCollisionResult(
+				return new ParticleCollisionResult(
 						this.world,
 						new Vec3(this.posX, height, this.posZ),
 						state,
 						false,
 						fluid
-				));
+				);
 			}
 		}
 
@@ -113,20 +113,20 @@ public abstract class MotionMote extends AgeableMote {
 				final double height = shape.max(Direction.Axis.Y) + this.position.getY();
 				if (height >= this.posY) {
 					// Have a collision
-					return Optional.of(new ParticleCollisionResult(
+					return new ParticleCollisionResult(
 							this.world,
 							new Vec3(this.posX, height, this.posZ),
 							state,
 							true,
 							null
-					));
+					);
 				}
 			}
 			// Hasn't collided yet
-			return Optional.empty();
+			return null;
 		}
 
-		return Optional.empty();
+		return null;
 	}
 
 	/**
@@ -152,9 +152,9 @@ public abstract class MotionMote extends AgeableMote {
 
 		this.position.set(this.posX, this.posY, this.posZ);
 
-		final Optional<ParticleCollisionResult> result = detectCollision();
-		if (result.isPresent()) {
-			handleCollision(result.get());
+		final ParticleCollisionResult result = detectCollision();
+		if (result != null) {
+			handleCollision(result);
 		} else {
 			this.motionX *= 0.9800000190734863D;
 			this.motionY *= 0.9800000190734863D;
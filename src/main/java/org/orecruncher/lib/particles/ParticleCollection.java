@@ -26,12 +26,11 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import org.orecruncher.lib.GameUtils;
 import org.orecruncher.lib.TickCounter;
-import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.math.LoggingTimerEMA;
 import org.orecruncher.lib.math.TimerEMA;
 
 import javax.annotation.Nonnull;
-import java.util.function.Predicate;
+import java.util.Arrays;
 
 @OnlyIn(Dist.CLIENT)
 final class ParticleCollection extends BaseParticle {
@@ -40,14 +39,12 @@ final class ParticleCollection extends BaseParticle {
     protected static final int MAX_PARTICLES = 4000;
     protected static final int ALLOCATION_SIZE = 128;
     protected static final int TICK_GRACE = 2;
-    /**
-     * Predicate used to update a mote and return whether it is dead or not.
-     */
-    private static final Predicate<IParticleMote> UPDATE_REMOVE = mote -> !mote.tick();
 
     protected final LoggingTimerEMA render;
     protected final LoggingTimerEMA tick;
-    protected final ObjectArray<IParticleMote> myParticles = new ObjectArray<>(ALLOCATION_SIZE);
+    // Live motes are packed at the front of the array
+    protected IParticleMote[] myParticles = new IParticleMote[ALLOCATION_SIZE];
+    protected int count;
     protected final ParticleRenderType renderType;
     protected long lastTickUpdate;
 
@@ -62,17 +59,19 @@ final class ParticleCollection extends BaseParticle {
     }
 
     public boolean canFit() {
-        return this.myParticles.size() < MAX_PARTICLES;
+        return this.count < MAX_PARTICLES;
     }
 
     public void addParticle(@Nonnull final IParticleMote mote) {
         if (canFit()) {
-            this.myParticles.add(mote);
+            if (this.count == this.myParticles.length)
+                this.myParticles = Arrays.copyOf(this.myParticles, Math.min(this.count * 2, MAX_PARTICLES));
+            this.myParticles[this.count++] = mote;
         }
     }
 
     public int size() {
-        return this.myParticles.size();
+        return this.count;
     }
 
     @Nonnull
@@ -95,7 +94,7 @@ final class ParticleCollection extends BaseParticle {
         this.tick.begin();
         if (isAlive()) {
             this.lastTickUpdate = TickCounter.getTickCount();
-            this.myParticles.removeIf(UPDATE_REMOVE);
+            updateMotes();
             if (shouldDie()) {
                 remove();
             }
@@ -103,6 +102,22 @@ final class ParticleCollection extends BaseParticle {
         this.tick.end();
     }
 
+    /**
+     * Ticks the motes.  When a mote dies the last mote in the array is moved into its slot, and is ticked next.
+     */
+    private void updateMotes() {
+        final IParticleMote[] motes = this.myParticles;
+        int i = 0;
+        while (i < this.count) {
+            if (motes[i].tick()) {
+                i++;
+            } else {
+                motes[i] = motes[--this.count];
+                motes[this.count] = null;
+            }
+        }
+    }
+
     @Override
     public boolean shouldCull() {
         return false;
@@ -111,9 +126,12 @@ final class ParticleCollection extends BaseParticle {
     @Override
     public void render(@Nonnull final VertexConsumer buffer, @Nonnull final Camera renderInfo, final float partialTicks) {
         this.render.begin();
-        for (final IParticleMote mote : this.myParticles)
-            if (FrustumHelper.isLocationInFrustum(mote.getPosition()))
+        final IParticleMote[] motes = this.myParticles;
+        for (int i = 0; i < this.count; i++) {
+            final IParticleMote mote = motes[i];
+            if (FrustumHelper.isLocationInFrustum(mote.getX(), mote.getY(), mote.getZ()))
                 mote.renderParticle(buffer, renderInfo, partialTicks);
+        }
         this.render.end();
     }
 
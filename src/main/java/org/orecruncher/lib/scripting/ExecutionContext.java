@@ -38,20 +38,25 @@ public final class ExecutionContext {
     private final String contextName;
     private final ScriptEngine engine;
     private final ObjectArray<VariableSet<?>> variables = new ObjectArray<>(8);
-    private final Map<String, CompiledScript> compiled = new HashMap<>();
-    private final CompiledScript error;
+    private final Map<String, ExpressionCompiler.Binding> bindings = new HashMap<>();
+    private final Map<String, ExpressionCompiler.Expression> compiled = new HashMap<>();
+    private final ExpressionCompiler.Expression error = () -> "<ERROR>";
 
     public ExecutionContext(@Nonnull final String contextName) {
         this.contextName = contextName;
         this.engine = ScriptEngineLoader.getEngine();
-        this.error = makeFunction("'<ERROR>'");
-        this.engine.put("lib", new LibraryFunctions());
+        put("lib", new LibraryFunctions());
 
         Lib.LOGGER.info("JavaScript engine provided: %s", this.engine.getFactory().getEngineName());
     }
 
     public void put(@Nonnull final String name, @Nullable final Object obj) {
         this.engine.put(name, obj);
+        final ExpressionCompiler.Binding binding = this.bindings.computeIfAbsent(name, k -> new ExpressionCompiler.Binding());
+        if (binding.value != obj) {
+            binding.value = obj;
+            binding.generation++;
+        }
     }
 
     public void add(@Nonnull final VariableSet<?> varSet) {
@@ -59,7 +64,8 @@ public final class ExecutionContext {
             throw new IllegalStateException(String.format("Variable set '%s' already defined!", varSet.getSetName()));
 
         this.variables.add(varSet);
-        this.engine.put(varSet.getSetName(), varSet.getInterface());
+        put(varSet.getSetName(), varSet.getInterface());
+        this.bindings.get(varSet.getSetName()).set = varSet;
     }
 
     public String getName() {
@@ -79,7 +85,7 @@ public final class ExecutionContext {
 
     @Nonnull
     public Optional<Object> eval(@Nonnull final String script) {
-        CompiledScript func = compiled.get(script);
+        ExpressionCompiler.Expression func = compiled.get(script);
         if (func == null) {
             func = makeFunction(script);
             compiled.put(script, func);
@@ -97,10 +103,16 @@ public final class ExecutionContext {
     }
 
     @Nonnull
-    private CompiledScript makeFunction(@Nonnull final String script) {
+    private ExpressionCompiler.Expression makeFunction(@Nonnull final String script) {
+        // Most conditions can be turned into Java directly.  Only go to the script engine when that is not possible.
+        final ExpressionCompiler.Expression expression = ExpressionCompiler.compile(script, this.bindings::get);
+        if (expression != null)
+            return expression;
+
+        LOGGER.debug("Script '%s' is being handled by the script engine", script);
         final String source = String.format(FUNCTION_SHELL, script);
         try {
-            return ((Compilable) this.engine).compile(source);
+            return ((Compilable) this.engine).compile(source)::eval;
         } catch (@Nonnull final Throwable t) {
             LOGGER.error(t, "Error compiling script: %s", source);
         }
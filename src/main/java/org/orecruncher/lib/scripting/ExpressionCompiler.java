@@ -0,0 +1,744 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.lib.scripting;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Compiles script expressions into a tree of Java lambdas.  Handles the subset of JavaScript that is used for
+ * conditions in the configuration files: literals, properties and method calls on the objects that have been placed
+ * into the execution context, and the logical, comparison, arithmetic and ternary operators.  Members are resolved
+ * to method handles when the expression is compiled so evaluation does not involve any lookups.  Anything outside
+ * of the subset is reported as unsupported so the caller can fall back to the script engine.
+ *
+ * The compiler notes which objects an expression reads.  The result of an evaluation is reused until the generation
+ * of one of those objects changes.
+ */
+final class ExpressionCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final int IDENT = 0;
+    private static final int NUMBER = 1;
+    private static final int STRING = 2;
+    private static final int OPERATOR = 3;
+    private static final int END = 4;
+
+    // Longer operators first so they match before their prefixes
+    private static final String[] OPERATORS = {
+            "===", "!==", "==", "!=", "<=", ">=", "&&", "||",
+            "<", ">", "!", "+", "-", "*", "/", "%", "(", ")", ",", ".", "?", ":"
+    };
+
+    /**
+     * Compiled form of an expression.
+     */
+    @FunctionalInterface
+    interface Expression {
+        @Nullable
+        Object eval() throws Throwable;
+    }
+
+    /**
+     * Holds the current value of a named object in the execution context.  Compiled expressions reference the
+     * binding rather than the value so the value can be replaced without recompiling.
+     */
+    static final class Binding {
+        @Nullable
+        Object value;
+        // Set when the value is the interface of a variable set, which then tracks the generation
+        @Nullable
+        VariableSet<?> set;
+        int generation;
+
+        int getGeneration() {
+            return this.set != null ? this.set.getGeneration() : this.generation;
+        }
+    }
+
+    private final String script;
+    private final Function<String, Binding> resolver;
+    private final List<Token> tokens = new ArrayList<>();
+    private final List<Binding> dependencies = new ArrayList<>();
+    private int current;
+
+    private ExpressionCompiler(@Nonnull final String script, @Nonnull final Function<String, Binding> resolver) {
+        this.script = script;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Compiles the script.
+     *
+     * @param script   Script to compile
+     * @param resolver Resolves the name of an object to its binding, or null if there is no such object
+     * @return The compiled expression, or null if the script uses something that is not supported
+     */
+    @Nullable
+    static Expression compile(@Nonnull final String script, @Nonnull final Function<String, Binding> resolver) {
+        try {
+            final ExpressionCompiler compiler = new ExpressionCompiler(script, resolver);
+            compiler.tokenize();
+            final Node node = compiler.ternary();
+            compiler.expect(END);
+            return new Memoized(node.expr, compiler.dependencies.toArray(new Binding[0]));
+        } catch (@Nonnull final UnsupportedException ignore) {
+            return null;
+        }
+    }
+
+    //
+    // Parsing
+    //
+
+    private Node ternary() {
+        final Node condition = or();
+        if (!accept("?"))
+            return condition;
+        final Node t = ternary();
+        expect(":");
+        final Node f = ternary();
+        final Expression c = condition.expr;
+        final Expression te = t.expr;
+        final Expression fe = f.expr;
+        return new Node(common(t, f), () -> isTrue(c.eval()) ? te.eval() : fe.eval());
+    }
+
+    private Node or() {
+        Node left = and();
+        while (accept("||")) {
+            final Node right = and();
+            final Expression l = left.expr;
+            final Expression r = right.expr;
+            left = new Node(common(left, right), () -> {
+                final Object v = l.eval();
+                return isTrue(v) ? v : r.eval();
+            });
+        }
+        return left;
+    }
+
+    private Node and() {
+        Node left = equality();
+        while (accept("&&")) {
+            final Node right = equality();
+            final Expression l = left.expr;
+            final Expression r = right.expr;
+            left = new Node(common(left, right), () -> {
+                final Object v = l.eval();
+                return isTrue(v) ? r.eval() : v;
+            });
+        }
+        return left;
+    }
+
+    private Node equality() {
+        Node left = relational();
+        while (true) {
+            final Expression l = left.expr;
+            if (accept("==")) {
+                final Expression r = relational().expr;
+                left = new Node(Boolean.class, () -> looseEquals(l.eval(), r.eval()));
+            } else if (accept("!=")) {
+                final Expression r = relational().expr;
+                left = new Node(Boolean.class, () -> !looseEquals(l.eval(), r.eval()));
+            } else if (accept("===")) {
+                final Expression r = relational().expr;
+                left = new Node(Boolean.class, () -> strictEquals(l.eval(), r.eval()));
+            } else if (accept("!==")) {
+                final Expression r = relational().expr;
+                left = new Node(Boolean.class, () -> !strictEquals(l.eval(), r.eval()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node relational() {
+        Node left = additive();
+        while (true) {
+            final Expression l = left.expr;
+            if (accept("<")) {
+                final Expression r = additive().expr;
+                left = new Node(Boolean.class, () -> less(l.eval(), r.eval(), false));
+            } else if (accept("<=")) {
+                final Expression r = additive().expr;
+                left = new Node(Boolean.class, () -> less(l.eval(), r.eval(), true));
+            } else if (accept(">")) {
+                final Expression r = additive().expr;
+                left = new Node(Boolean.class, () -> {
+                    final Object lv = l.eval();
+                    return less(r.eval(), lv, false);
+                });
+            } else if (accept(">=")) {
+                final Expression r = additive().expr;
+                left = new Node(Boolean.class, () -> {
+                    final Object lv = l.eval();
+                    return less(r.eval(), lv, true);
+                });
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node additive() {
+        Node left = multiplicative();
+        while (true) {
+            final Expression l = left.expr;
+            if (accept("+")) {
+                final Expression r = multiplicative().expr;
+                left = new Node(Object.class, () -> add(l.eval(), r.eval()));
+            } else if (accept("-")) {
+                final Expression r = multiplicative().expr;
+                left = new Node(Double.class, () -> toNumber(l.eval()) - toNumber(r.eval()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node multiplicative() {
+        Node left = unary();
+        while (true) {
+            final Expression l = left.expr;
+            if (accept("*")) {
+                final Expression r = unary().expr;
+                left = new Node(Double.class, () -> toNumber(l.eval()) * toNumber(r.eval()));
+            } else if (accept("/")) {
+                final Expression r = unary().expr;
+                left = new Node(Double.class, () -> toNumber(l.eval()) / toNumber(r.eval()));
+            } else if (accept("%")) {
+                final Expression r = unary().expr;
+                left = new Node(Double.class, () -> toNumber(l.eval()) % toNumber(r.eval()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node unary() {
+        if (accept("!")) {
+            final Expression e = unary().expr;
+            return new Node(Boolean.class, () -> !isTrue(e.eval()));
+        }
+        if (accept("-")) {
+            final Expression e = unary().expr;
+            return new Node(Double.class, () -> -toNumber(e.eval()));
+        }
+        if (accept("+")) {
+            final Expression e = unary().expr;
+            return new Node(Double.class, () -> toNumber(e.eval()));
+        }
+        return postfix();
+    }
+
+    private Node postfix() {
+        Node node = primary();
+        while (accept(".")) {
+            final String name = expect(IDENT).text;
+            if (accept("(")) {
+                final List<Node> args = new ArrayList<>();
+                if (!accept(")")) {
+                    do {
+                        args.add(ternary());
+                    } while (accept(","));
+                    expect(")");
+                }
+                node = methodCall(node, name, args);
+            } else {
+                node = property(node, name);
+            }
+        }
+        return node;
+    }
+
+    private Node primary() {
+        final Token token = next();
+        switch (token.kind) {
+            case NUMBER:
+            case STRING:
+                final Object value = token.value;
+                return new Node(value.getClass(), () -> value);
+            case IDENT:
+                switch (token.text) {
+                    case "true":
+                        return new Node(Boolean.class, () -> Boolean.TRUE);
+                    case "false":
+                        return new Node(Boolean.class, () -> Boolean.FALSE);
+                    case "null":
+                        return new Node(Object.class, () -> null);
+                    default:
+                        final Binding binding = this.resolver.apply(token.text);
+                        // Need a value to know what the members are
+                        if (binding == null || binding.value == null)
+                            throw new UnsupportedException();
+                        if (!this.dependencies.contains(binding))
+                            this.dependencies.add(binding);
+                        return new Node(binding.value.getClass(), () -> binding.value);
+                }
+            case OPERATOR:
+                if (!"(".equals(token.text))
+                    throw new UnsupportedException();
+                final Node node = ternary();
+                expect(")");
+                return node;
+            default:
+                throw new UnsupportedException();
+        }
+    }
+
+    //
+    // Member resolution
+    //
+
+    private static Node methodCall(@Nonnull final Node target, @Nonnull final String name, @Nonnull final List<Node> args) {
+        final Method method = findMethod(target.type, name, args.size());
+        if (method == null)
+            throw new UnsupportedException();
+
+        final MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(method).asType(MethodType.genericMethodType(args.size() + 1));
+        } catch (@Nonnull final Throwable t) {
+            throw new UnsupportedException();
+        }
+
+        final Expression receiver = target.expr;
+        final Class<?>[] params = method.getParameterTypes();
+        final Class<?> type = wrap(method.getReturnType());
+        switch (args.size()) {
+            case 0:
+                return new Node(type, () -> {
+                    final Object result = handle.invokeExact(receiver.eval());
+                    return result;
+                });
+            case 1: {
+                final Expression a0 = coerce(args.get(0).expr, params[0]);
+                return new Node(type, () -> {
+                    final Object result = handle.invokeExact(receiver.eval(), a0.eval());
+                    return result;
+                });
+            }
+            case 2: {
+                final Expression a0 = coerce(args.get(0).expr, params[0]);
+                final Expression a1 = coerce(args.get(1).expr, params[1]);
+                return new Node(type, () -> {
+                    final Object result = handle.invokeExact(receiver.eval(), a0.eval(), a1.eval());
+                    return result;
+                });
+            }
+            case 3: {
+                final Expression a0 = coerce(args.get(0).expr, params[0]);
+                final Expression a1 = coerce(args.get(1).expr, params[1]);
+                final Expression a2 = coerce(args.get(2).expr, params[2]);
+                return new Node(type, () -> {
+                    final Object result = handle.invokeExact(receiver.eval(), a0.eval(), a1.eval(), a2.eval());
+                    return result;
+                });
+            }
+            default:
+                throw new UnsupportedException();
+        }
+    }
+
+    private static Node property(@Nonnull final Node target, @Nonnull final String name) {
+        final Expression receiver = target.expr;
+
+        // Script objects such as the biome properties are maps
+        if (Map.class.isAssignableFrom(target.type))
+            return new Node(Object.class, () -> ((Map<?, ?>) receiver.eval()).get(name));
+
+        // Bean style getter
+        final String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        Method getter = findMethod(target.type, "get" + suffix, 0);
+        if (getter == null)
+            getter = findMethod(target.type, "is" + suffix, 0);
+        if (getter != null)
+            return methodCall(target, getter.getName(), new ArrayList<>());
+
+        // Public field
+        try {
+            final Field field = target.type.getField(name);
+            if (!Modifier.isStatic(field.getModifiers()) && Modifier.isPublic(field.getDeclaringClass().getModifiers())) {
+                final MethodHandle handle = LOOKUP.unreflectGetter(field).asType(MethodType.genericMethodType(1));
+                return new Node(wrap(field.getType()), () -> {
+                    final Object result = handle.invokeExact(receiver.eval());
+                    return result;
+                });
+            }
+        } catch (@Nonnull final NoSuchFieldException | IllegalAccessException ignore) {
+        }
+
+        throw new UnsupportedException();
+    }
+
+    /**
+     * Locates the instance method with the given name and parameter count.  The method returned is declared by a
+     * public type so that it can be invoked even if the class of the object is not public.  Overloads are not
+     * resolved so they are reported as not found, as are variable argument methods.
+     */
+    @Nullable
+    private static Method findMethod(@Nonnull final Class<?> type, @Nonnull final String name, final int paramCount) {
+        Method found = null;
+        for (final Method m : type.getMethods()) {
+            if (!m.getName().equals(name) || m.getParameterCount() != paramCount || Modifier.isStatic(m.getModifiers()))
+                continue;
+            if (m.isVarArgs())
+                return null;
+            if (found != null) {
+                if (!Arrays.equals(found.getParameterTypes(), m.getParameterTypes()))
+                    return null;
+                continue;
+            }
+            found = accessible(type, m);
+        }
+        return found;
+    }
+
+    @Nullable
+    private static Method accessible(@Nonnull final Class<?> type, @Nonnull final Method method) {
+        if (Modifier.isPublic(method.getDeclaringClass().getModifiers()))
+            return method;
+
+        // Search the super types for a public declaration of the method
+        final Deque<Class<?>> queue = new ArrayDeque<>();
+        final Set<Class<?>> seen = new HashSet<>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            final Class<?> c = queue.poll();
+            if (!seen.add(c))
+                continue;
+            if (Modifier.isPublic(c.getModifiers())) {
+                try {
+                    final Method m = c.getMethod(method.getName(), method.getParameterTypes());
+                    if (Modifier.isPublic(m.getDeclaringClass().getModifiers()))
+                        return m;
+                } catch (@Nonnull final NoSuchMethodException ignore) {
+                }
+            }
+            if (c.getSuperclass() != null)
+                queue.add(c.getSuperclass());
+            queue.addAll(Arrays.asList(c.getInterfaces()));
+        }
+        return null;
+    }
+
+    // Converts script values to what the parameter of a method expects, the way the script engine would
+    @Nonnull
+    private static Expression coerce(@Nonnull final Expression expr, @Nonnull final Class<?> type) {
+        if (type == double.class || type == Double.class)
+            return () -> toNumber(expr.eval());
+        if (type == float.class || type == Float.class)
+            return () -> (float) toNumber(expr.eval());
+        if (type == long.class || type == Long.class)
+            return () -> (long) toNumber(expr.eval());
+        if (type == int.class || type == Integer.class)
+            return () -> (int) toNumber(expr.eval());
+        if (type == short.class || type == Short.class)
+            return () -> (short) toNumber(expr.eval());
+        if (type == byte.class || type == Byte.class)
+            return () -> (byte) toNumber(expr.eval());
+        if (type == boolean.class || type == Boolean.class)
+            return () -> isTrue(expr.eval());
+        if (type == String.class)
+            return () -> {
+                final Object v = expr.eval();
+                return v == null ? null : toString(v);
+            };
+        return expr;
+    }
+
+    @Nonnull
+    private static Class<?> wrap(@Nonnull final Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    @Nonnull
+    private static Class<?> common(@Nonnull final Node a, @Nonnull final Node b) {
+        return a.type == b.type ? a.type : Object.class;
+    }
+
+    //
+    // Runtime semantics, following JavaScript
+    //
+
+    private static boolean isTrue(@Nullable final Object v) {
+        if (v instanceof Boolean)
+            return (Boolean) v;
+        if (v == null)
+            return false;
+        if (v instanceof Number) {
+            final double d = ((Number) v).doubleValue();
+            return d != 0 && !Double.isNaN(d);
+        }
+        if (v instanceof String)
+            return !((String) v).isEmpty();
+        return true;
+    }
+
+    private static double toNumber(@Nullable final Object v) {
+        if (v instanceof Number)
+            return ((Number) v).doubleValue();
+        if (v instanceof Boolean)
+            return (Boolean) v ? 1 : 0;
+        if (v == null)
+            return 0;
+        if (v instanceof String) {
+            final String s = ((String) v).trim();
+            if (s.isEmpty())
+                return 0;
+            try {
+                return Double.parseDouble(s);
+            } catch (@Nonnull final NumberFormatException ignore) {
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Nonnull
+    private static String toString(@Nonnull final Object v) {
+        if (v instanceof Number) {
+            final double d = ((Number) v).doubleValue();
+            if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 1e15)
+                return Long.toString((long) d);
+        }
+        return v.toString();
+    }
+
+    private static boolean looseEquals(@Nullable final Object a, @Nullable final Object b) {
+        if (a == null || b == null)
+            return a == b;
+        if (a instanceof String && b instanceof String)
+            return a.equals(b);
+        if (a instanceof Number || b instanceof Number || a instanceof Boolean || b instanceof Boolean)
+            return toNumber(a) == toNumber(b);
+        return a.equals(b);
+    }
+
+    private static boolean strictEquals(@Nullable final Object a, @Nullable final Object b) {
+        if (a == null || b == null)
+            return a == b;
+        if (a instanceof Number && b instanceof Number)
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        return a.equals(b);
+    }
+
+    // Comparisons involving NaN are always false, which the primitive double comparisons take care of
+    private static boolean less(@Nullable final Object a, @Nullable final Object b, final boolean orEqual) {
+        if (a instanceof String && b instanceof String) {
+            final int result = ((String) a).compareTo((String) b);
+            return orEqual ? result <= 0 : result < 0;
+        }
+        final double l = toNumber(a);
+        final double r = toNumber(b);
+        return orEqual ? l <= r : l < r;
+    }
+
+    @Nonnull
+    private static Object add(@Nullable final Object a, @Nullable final Object b) {
+        if (a instanceof String || b instanceof String)
+            return (a == null ? "null" : toString(a)) + (b == null ? "null" : toString(b));
+        return toNumber(a) + toNumber(b);
+    }
+
+    //
+    // Tokenizer
+    //
+
+    private void tokenize() {
+        final String s = this.script;
+        int i = 0;
+        final int len = s.length();
+        while (i < len) {
+            final char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                final int start = i;
+                while (i < len && Character.isJavaIdentifierPart(s.charAt(i)))
+                    i++;
+                this.tokens.add(new Token(IDENT, s.substring(start, i), null));
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < len && Character.isDigit(s.charAt(i + 1)))) {
+                final int start = i;
+                while (i < len && (Character.isDigit(s.charAt(i)) || s.charAt(i) == '.'))
+                    i++;
+                if (i < len && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+                    i++;
+                    if (i < len && (s.charAt(i) == '+' || s.charAt(i) == '-'))
+                        i++;
+                    while (i < len && Character.isDigit(s.charAt(i)))
+                        i++;
+                }
+                final String text = s.substring(start, i);
+                try {
+                    this.tokens.add(new Token(NUMBER, text, Double.parseDouble(text)));
+                } catch (@Nonnull final NumberFormatException ex) {
+                    throw new UnsupportedException();
+                }
+            } else if (c == '\'' || c == '"') {
+                final StringBuilder builder = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= len)
+                        throw new UnsupportedException();
+                    final char ch = s.charAt(i++);
+                    if (ch == c)
+                        break;
+                    // Escapes other than a quote or backslash are left to the script engine
+                    if (ch == '\\') {
+                        if (i >= len)
+                            throw new UnsupportedException();
+                        final char escaped = s.charAt(i++);
+                        if (escaped != '\'' && escaped != '"' && escaped != '\\')
+                            throw new UnsupportedException();
+                        builder.append(escaped);
+                    } else {
+                        builder.append(ch);
+                    }
+                }
+                this.tokens.add(new Token(STRING, null, builder.toString()));
+            } else {
+                String op = null;
+                for (final String candidate : OPERATORS)
+                    if (s.startsWith(candidate, i)) {
+                        op = candidate;
+                        break;
+                    }
+                if (op == null)
+                    throw new UnsupportedException();
+                this.tokens.add(new Token(OPERATOR, op, null));
+                i += op.length();
+            }
+        }
+        this.tokens.add(new Token(END, null, null));
+    }
+
+    @Nonnull
+    private Token next() {
+        final Token token = this.tokens.get(this.current);
+        if (token.kind != END)
+            this.current++;
+        return token;
+    }
+
+    private boolean accept(@Nonnull final String op) {
+        final Token token = this.tokens.get(this.current);
+        if (token.kind == OPERATOR && op.equals(token.text)) {
+            this.current++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(@Nonnull final String op) {
+        if (!accept(op))
+            throw new UnsupportedException();
+    }
+
+    @Nonnull
+    private Token expect(final int kind) {
+        final Token token = next();
+        if (token.kind != kind)
+            throw new UnsupportedException();
+        return token;
+    }
+
+    // Reuses the last result of an expression until one of the objects it reads changes.  Generations only go up
+    // so the sum of them changes whenever any one of them does.
+    private static final class Memoized implements Expression {
+        @Nonnull
+        private final Expression expr;
+        @Nonnull
+        private final Binding[] dependencies;
+        private boolean valid;
+        private int stamp;
+        @Nullable
+        private Object value;
+
+        Memoized(@Nonnull final Expression expr, @Nonnull final Binding[] dependencies) {
+            this.expr = expr;
+            this.dependencies = dependencies;
+        }
+
+        @Nullable
+        @Override
+        public Object eval() throws Throwable {
+            int stamp = 0;
+            for (final Binding binding : this.dependencies)
+                stamp += binding.getGeneration();
+            if (!this.valid || stamp != this.stamp) {
+                this.value = this.expr.eval();
+                this.stamp = stamp;
+                this.valid = true;
+            }
+            return this.value;
+        }
+    }
+
+    private static final class Token {
+        final int kind;
+        @Nullable
+        final String text;
+        @Nullable
+        final Object value;
+
+        Token(final int kind, @Nullable final String text, @Nullable final Object value) {
+            this.kind = kind;
+            this.text = text;
+            this.value = value;
+        }
+    }
+
+    private static final class Node {
+        @Nonnull
+        final Class<?> type;
+        @Nonnull
+        final Expression expr;
+
+        Node(@Nonnull final Class<?> type, @Nonnull final Expression expr) {
+            this.type = type;
+            this.expr = expr;
+        }
+    }
+
+    // Thrown when the script uses something the compiler does not handle.  No stack trace is needed since it is
+    // used for flow control.
+    private static final class UnsupportedException extends RuntimeException {
+        UnsupportedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -26,12 +26,17 @@ import javax.annotation.Nonnull;
  * and have that data updated once per tick.  This ticking allows for the calculation and caching of values that are
  * expensive to calculate and reused repeatedly through the tick.
  *
+ * A set keeps a generation count that is bumped whenever update() finds that its values have changed.  Script
+ * results that depend on the set are reused until the generation moves.  Values that are read live, or that are too
+ * expensive to compare, should be treated as changed if they were read since the last update.
+ *
  * @param <T>
  */
 public abstract class VariableSet<T> {
 
     @Nonnull
     private final String setName;
+    private int generation;
 
     protected VariableSet(@Nonnull final String setName) {
         this.setName = setName;
@@ -42,6 +47,22 @@ public abstract class VariableSet<T> {
         return this.setName;
     }
 
+    /**
+     * The generation of the values in the set.  Changes whenever the values change.
+     *
+     * @return Current generation of the values
+     */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Called by sets during update() to indicate that one or more values have changed.
+     */
+    protected void changed() {
+        this.generation++;
+    }
+
     public void update() {
 
     }
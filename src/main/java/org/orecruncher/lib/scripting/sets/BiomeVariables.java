@@ -56,6 +56,7 @@ public class BiomeVariables extends VariableSet<IBiomeVariables> implements IBio
         if (this.biome != biome) {
             update();
             this.biome = biome;
+            changed();
         }
     }
 
@@ -84,6 +85,7 @@ public class BiomeVariables extends VariableSet<IBiomeVariables> implements IBio
             this.traits.reset();
             this.biomeTraits.reset();
             this.biomeTraitNames.reset();
+            changed();
         }
     }
 
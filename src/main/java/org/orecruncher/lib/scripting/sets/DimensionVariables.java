@@ -48,19 +48,31 @@ public class DimensionVariables extends VariableSet<IDimensionVariables> impleme
 
     @Override
     public void update() {
+        final String id;
+        final String name;
+        final boolean hasSky;
+        final boolean isSuperFlat;
         if (GameUtils.isInGame()) {
             assert GameUtils.getWorld() != null;
             final DimensionType dim = GameUtils.getWorld().dimensionType();
             final ResourceLocation location = GameUtils.getWorld().dimension().location();
-            this.id = location.toString();
-            this.hasSky = dim.hasSkyLight();
-            this.name = location.getPath();
-            this.isSuperFlat = WorldUtils.isSuperFlat(GameUtils.getWorld());
+            id = location.toString();
+            hasSky = dim.hasSkyLight();
+            name = location.getPath();
+            isSuperFlat = WorldUtils.isSuperFlat(GameUtils.getWorld());
         } else {
-            this.id = "UNKNOWN";
-            this.hasSky = false;
-            this.name = "UNKNOWN";
-            this.isSuperFlat = false;
+            id = "UNKNOWN";
+            hasSky = false;
+            name = "UNKNOWN";
+            isSuperFlat = false;
+        }
+
+        if (!id.equals(this.id) || !name.equals(this.name) || hasSky != this.hasSky || isSuperFlat != this.isSuperFlat) {
+            this.id = id;
+            this.name = name;
+            this.hasSky = hasSky;
+            this.isSuperFlat = isSuperFlat;
+            changed();
         }
     }
 
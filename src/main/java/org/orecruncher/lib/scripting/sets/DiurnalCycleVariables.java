@@ -48,22 +48,24 @@ public class DiurnalCycleVariables extends VariableSet<IDiurnalCycle> implements
     }
 
     public void update() {
-
-        if (GameUtils.isInGame()) {
-            DayCycle cycle = DayCycle.getCycle(GameUtils.getWorld());
-            this.isAuroraVisible = cycle.isAuroraVisible();
+        final DayCycle cycle = GameUtils.isInGame() ? DayCycle.getCycle(GameUtils.getWorld()) : null;
+        final boolean isAuroraVisible = cycle != null && cycle.isAuroraVisible();
+        if (isAuroraVisible != this.isAuroraVisible
+                || this.isDay != (cycle == DayCycle.DAYTIME)
+                || this.isNight != (cycle == DayCycle.NIGHTTIME)
+                || this.isSunrise != (cycle == DayCycle.SUNRISE)
+                || this.isSunset != (cycle == DayCycle.SUNSET)) {
+            this.isAuroraVisible = isAuroraVisible;
             this.isDay = cycle == DayCycle.DAYTIME;
             this.isNight = cycle == DayCycle.NIGHTTIME;
             this.isSunrise = cycle == DayCycle.SUNRISE;
             this.isSunset = cycle == DayCycle.SUNSET;
-        } else {
-            this.isAuroraVisible = false;
-            this.isDay = false;
-            this.isNight = false;
-            this.isSunrise = false;
-            this.isSunset = false;
+            changed();
         }
 
+        // Moon phase and celestial angle move with time, so anything that looked at them needs to look again
+        if (this.moonPhaseFactor.isSet() || this.celestialAngle.isSet())
+            changed();
         this.moonPhaseFactor.reset();
         this.celestialAngle.reset();
     }
@@ -46,6 +46,16 @@ public final class LazyVariable<T> {
         this.value = null;
     }
 
+    /**
+     * Indicates if the value has been obtained since the last reset.  Used by variable sets to tell whether anything
+     * depends on the value.
+     *
+     * @return true if the value has been obtained, false otherwise
+     */
+    public boolean isSet() {
+        return this.value != null;
+    }
+
     public T get() {
         if (this.value == null)
             this.value = this.supplier.get();
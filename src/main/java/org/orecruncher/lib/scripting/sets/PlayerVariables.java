@@ -82,6 +82,14 @@ public class PlayerVariables extends VariableSet<IPlayerVariables> implements IP
 
     @Override
     public void update() {
+        final int flags = getFlags();
+        final float health = this.health;
+        final float maxHealth = this.maxHealth;
+        final float foodLevel = this.foodLevel;
+        final float foodSaturationLevel = this.foodSaturationLevel;
+        final double x = this.x;
+        final double y = this.y;
+        final double z = this.z;
 
         if (GameUtils.isInGame()) {
             final Player player = GameUtils.getPlayer();
@@ -130,10 +138,36 @@ public class PlayerVariables extends VariableSet<IPlayerVariables> implements IP
 
         }
 
+        if (flags != getFlags() || health != this.health || maxHealth != this.maxHealth
+                || foodLevel != this.foodLevel || foodSaturationLevel != this.foodSaturationLevel
+                || x != this.x || y != this.y || z != this.z)
+            changed();
+
+        // These are not compared, so anything that looked at them needs to look again
+        if (this.isSuffocating.isSet() || this.canRainOn.isSet() || this.canSeeSky.isSet())
+            changed();
+
         this.isSuffocating.reset();
         this.canRainOn.reset();
         this.canSeeSky.reset();
+    }
 
+    // Packs the flags so they can be compared in one go
+    private int getFlags() {
+        int flags = 0;
+        if (this.isCreative) flags |= 1;
+        if (this.isBurning) flags |= 1 << 1;
+        if (this.isFlying) flags |= 1 << 2;
+        if (this.isSprintnig) flags |= 1 << 3;
+        if (this.isInLava) flags |= 1 << 4;
+        if (this.isInvisible) flags |= 1 << 5;
+        if (this.isBlind) flags |= 1 << 6;
+        if (this.isInWater) flags |= 1 << 7;
+        if (this.isWet) flags |= 1 << 8;
+        if (this.isRiding) flags |= 1 << 9;
+        if (this.isOnGround) flags |= 1 << 10;
+        if (this.isMoving) flags |= 1 << 11;
+        return flags;
     }
 
     @Nonnull
@@ -45,6 +45,9 @@ public class SeasonVariables  extends VariableSet<ISeasonVariables> implements I
 
     @Override
     public void update() {
+        // The season is not compared, so anything that looked at it needs to look again
+        if (this.season.isSet())
+            changed();
         this.season.reset();
         this.seasonName.reset();
     }
@@ -43,6 +43,9 @@ public class WeatherVariables extends VariableSet<IWeatherVariables> implements
     private boolean isThundering;
     private float rainIntensity;
     private float thunderIndensity;
+    // Temperature only changes when the player moves to another block or world
+    private Level temperatureWorld;
+    private long temperaturePos;
 
     public WeatherVariables() {
         super("weather");
@@ -56,19 +59,41 @@ public class WeatherVariables extends VariableSet<IWeatherVariables> implements
 
     @Override
     public void update() {
+        final float rainIntensity;
+        final float thunderIntensity;
+        final boolean isRaining;
+        final boolean isThundering;
+        Level world = null;
+        long pos = 0;
         if (GameUtils.isInGame()) {
-            final Level world = GameUtils.getWorld();
-            this.rainIntensity = WorldUtils.getRainStrength(world, 1F);
-            this.thunderIndensity = WorldUtils.getThunderStrength(world, 1F);
-            this.isRaining = WorldUtils.isRaining(world);
-            this.isThundering = WorldUtils.isThundering(world);
+            world = GameUtils.getWorld();
+            rainIntensity = WorldUtils.getRainStrength(world, 1F);
+            thunderIntensity = WorldUtils.getThunderStrength(world, 1F);
+            isRaining = WorldUtils.isRaining(world);
+            isThundering = WorldUtils.isThundering(world);
+            pos = GameUtils.getPlayer().blockPosition().asLong();
         } else {
-            this.rainIntensity = 0F;
-            this.thunderIndensity = 0F;
-            this.isRaining = false;
-            this.isThundering = false;
+            rainIntensity = 0F;
+            thunderIntensity = 0F;
+            isRaining = false;
+            isThundering = false;
+        }
+
+        if (rainIntensity != this.rainIntensity || thunderIntensity != this.thunderIndensity
+                || isRaining != this.isRaining || isThundering != this.isThundering) {
+            this.rainIntensity = rainIntensity;
+            this.thunderIndensity = thunderIntensity;
+            this.isRaining = isRaining;
+            this.isThundering = isThundering;
+            changed();
+        }
+
+        if (world != this.temperatureWorld || pos != this.temperaturePos) {
+            this.temperatureWorld = world;
+            this.temperaturePos = pos;
+            this.temperature.reset();
+            changed();
         }
-        this.temperature.reset();
     }
 
     @Override
@@ -18,9 +18,12 @@
 
 package org.orecruncher.lib.service;
 
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
+import javax.annotation.Nonnull;
+
 @OnlyIn(Dist.CLIENT)
 public interface IModuleService {
 
@@ -38,4 +41,23 @@ public interface IModuleService {
         stop();
         start();
     }
+
+    /**
+     * Called for every registered BlockState after the services have reloaded so that data cached on the state can
+     * be calculated up front rather than on first use.
+     *
+     * @param state BlockState to precache
+     */
+    default void precache(@Nonnull final BlockState state) {
+
+    }
+
+    /**
+     * Indicates whether precache() can be called for different states at the same time from multiple threads.
+     *
+     * @return true if precache() is thread safe, false otherwise
+     */
+    default boolean isPrecacheThreadSafe() {
+        return true;
+    }
 }
@@ -22,6 +22,8 @@ import net.minecraft.server.packs.resources.ReloadableResourceManager;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
 import net.minecraftforge.event.TagsUpdatedEvent;
@@ -36,8 +38,10 @@ import org.orecruncher.lib.fml.ForgeUtils;
 import org.orecruncher.lib.logging.IModLog;
 import org.orecruncher.lib.resource.ResourceUtils;
 import org.orecruncher.lib.tags.TagUtils;
+import org.orecruncher.lib.threading.BatchProcessor;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -83,9 +87,53 @@ public final class ModuleServiceManager implements ResourceManagerReloadListener
             LOGGER.debug("+  %s", p.getDescription().getString());
         });
         performAction("reload", IModuleService::reload);
+        precache();
         this.services.forEach(IModuleService::log);
     }
 
+    /**
+     * Has the services calculate the data they cache on each BlockState.  Services that can do so safely are handled
+     * in parallel.  Processing completes before returning, so the results are visible to anything that runs after.
+     */
+    private void precache() {
+        final long start = System.nanoTime();
+
+        final List<BlockState> states = new ArrayList<>(Block.BLOCK_STATE_REGISTRY.size());
+        Block.BLOCK_STATE_REGISTRY.forEach(states::add);
+        final BlockState[] work = states.toArray(new BlockState[0]);
+
+        final List<IModuleService> parallel = new ArrayList<>();
+        final List<IModuleService> serial = new ArrayList<>();
+        for (final IModuleService svc : this.services)
+            (svc.isPrecacheThreadSafe() ? parallel : serial).add(svc);
+
+        if (!parallel.isEmpty()) {
+            final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            final BatchProcessor<BlockState> processor = new BatchProcessor<>("BlockState Precache", threads, state -> precache(parallel, state), LOGGER);
+            try {
+                processor.process(work, work.length);
+            } finally {
+                processor.shutdown();
+            }
+        }
+
+        for (final BlockState state : work)
+            precache(serial, state);
+
+        final long duration = System.nanoTime() - start;
+        LOGGER.info("Precache of %d block states took %dmsecs", work.length, (long) (duration / 1000000D));
+    }
+
+    private static void precache(@Nonnull final List<IModuleService> services, @Nonnull final BlockState state) {
+        for (final IModuleService svc : services) {
+            try {
+                svc.precache(state);
+            } catch (@Nonnull final Throwable t) {
+                LOGGER.error(t, "Error precaching '%s' for '%s'", state, svc.name());
+            }
+        }
+    }
+
     @Override
     public void onResourceManagerReload(@Nonnull final ResourceManager resourceManager/*, @Nonnull final Predicate<IResourceType> resourcePredicate*/) {
         // Reload based on sounds
@@ -0,0 +1,178 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.lib.threading;
+
+import org.orecruncher.lib.logging.IModLog;
+import org.orecruncher.lib.math.EMA;
+import org.orecruncher.lib.math.TimerEMA;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Processes batches of items in parallel on a dedicated fork/join pool.  A batch is split into chunks that the
+ * pool threads claim until the batch is exhausted, so threads that finish early pick up the slack of those that
+ * are slow.  The tasks that do the work are created once and reused for every batch, so processing a batch does
+ * not allocate.
+ *
+ * @param <T> Type of item being processed
+ */
+public final class BatchProcessor<T> {
+
+    // Number of chunks to cut a batch into per thread.  More chunks gives better balancing at the cost of more
+    // contention on the cursor.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    @Nonnull
+    private final ForkJoinPool pool;
+    @Nonnull
+    private final Consumer<T> action;
+    @Nonnull
+    private final IModLog logger;
+    @Nonnull
+    private final Batch batch;
+    @Nonnull
+    private final Runner[] runners;
+    @Nonnull
+    private final AtomicInteger cursor = new AtomicInteger();
+    @Nonnull
+    private final TimerEMA batchTime;
+    @Nonnull
+    private final EMA batchSize;
+    private final int threads;
+
+    private T[] items;
+    private int count;
+    private int chunkSize;
+
+    /**
+     * Instantiates a batch processor.
+     *
+     * @param name    Name of the processor.  Used to name the pool threads.
+     * @param threads Number of threads in the pool
+     * @param action  Action to perform on each item of a batch
+     * @param logger  The logger to use when logging is needed
+     */
+    public BatchProcessor(@Nonnull final String name, final int threads, @Nonnull final Consumer<T> action, @Nonnull final IModLog logger) {
+        final ClassLoader loader = BatchProcessor.class.getClassLoader();
+        this.pool = new ForkJoinPool(threads, p -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + " " + thread.getPoolIndex());
+            thread.setContextClassLoader(loader);
+            return thread;
+        }, null, false);
+        this.action = action;
+        this.logger = logger;
+        this.batch = new Batch();
+        this.threads = threads;
+        // The thread that kicks off the batch does a share of the work so it needs one less runner
+        this.runners = new Runner[threads - 1];
+        for (int i = 0; i < this.runners.length; i++)
+            this.runners[i] = new Runner();
+        this.batchTime = new TimerEMA(name);
+        this.batchSize = new EMA(name);
+    }
+
+    /**
+     * Processes the first count items of the array, returning when all have been handled.  Should only be called
+     * from a single thread at a time.
+     *
+     * @param items Array of items to process
+     * @param count Number of items in the array to process
+     */
+    public void process(@Nonnull final T[] items, final int count) {
+        if (count == 0)
+            return;
+
+        final long start = System.nanoTime();
+
+        this.items = items;
+        this.count = count;
+        this.chunkSize = Math.max(1, count / (this.threads * CHUNKS_PER_THREAD));
+        this.cursor.set(0);
+
+        try {
+            this.batch.reinitialize();
+            this.pool.invoke(this.batch);
+        } finally {
+            this.items = null;
+            this.batchTime.update(System.nanoTime() - start);
+            this.batchSize.update(count);
+        }
+    }
+
+    /**
+     * Shuts down the pool threads.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Gathers a diagnostic string to display or log.
+     *
+     * @return String for logging or display
+     */
+    @Nonnull
+    public String getDiagnosticString() {
+        return String.format("%s (batch %.1f, %d threads)", this.batchTime.toString(), this.batchSize.get(), this.threads);
+    }
+
+    private void run() {
+        final T[] work = this.items;
+        final int end = this.count;
+        final int chunk = this.chunkSize;
+        int idx;
+        while ((idx = this.cursor.getAndAdd(chunk)) < end) {
+            final int limit = Math.min(idx + chunk, end);
+            for (; idx < limit; idx++) {
+                try {
+                    this.action.accept(work[idx]);
+                } catch (@Nonnull final Throwable t) {
+                    this.logger.error(t, "Error processing batch item");
+                }
+            }
+        }
+    }
+
+    private final class Batch extends RecursiveAction {
+        @Override
+        protected void compute() {
+            final Runner[] r = BatchProcessor.this.runners;
+            for (final Runner runner : r) {
+                runner.reinitialize();
+                runner.fork();
+            }
+            BatchProcessor.this.run();
+            for (int i = r.length - 1; i >= 0; i--)
+                r[i].join();
+        }
+    }
+
+    private final class Runner extends RecursiveAction {
+        @Override
+        protected void compute() {
+            BatchProcessor.this.run();
+        }
+    }
+}
@@ -34,6 +34,8 @@ public final class Worker {
     private final Runnable task;
     @Nonnull
     private final IModLog logger;
+    @Nonnull
+    private final TimerEMA timeTrack;
     private final int frequency;
     @Nonnull
     private String diagnosticString;
@@ -55,10 +57,10 @@ public final class Worker {
         this.frequency = frequencyMsecs;
         this.logger = logger;
         this.diagnosticString = StringUtils.EMPTY;
+        this.timeTrack = new TimerEMA(threadName);
     }
 
     private void run() {
-        final TimerEMA timeTrack = new TimerEMA(this.thread.getName());
         final StopWatch sw = new StopWatch();
         while (!this.stopProcessing ) {
             sw.start();
@@ -68,8 +70,8 @@ public final class Worker {
                 logger.error(t, "Error processing %s!", this.thread.getName());
             }
             sw.stop();
-            timeTrack.update(sw.getNanoTime());
-            this.diagnosticString = String.format("%s (deadline %d)", timeTrack.toString(), this.frequency);
+            this.timeTrack.update(sw.getNanoTime());
+            this.diagnosticString = String.format("%s (deadline %d)", this.timeTrack.toString(), this.frequency);
             long sleepTime = this.frequency - sw.getTime(TimeUnit.MILLISECONDS);
             sw.reset();
             if (sleepTime > 0) {
@@ -102,6 +104,25 @@ public final class Worker {
         }
     }
 
+    /**
+     * Gets the average amount of time, in msecs, the task takes to execute.  Will be NaN if the task has not
+     * executed yet.
+     *
+     * @return Average task execution time in msecs
+     */
+    public double getAverageTime() {
+        return this.timeTrack.getMSecs();
+    }
+
+    /**
+     * Gets the frequency, in msecs, that the task is scheduled to execute.
+     *
+     * @return Task frequency in msecs
+     */
+    public int getFrequency() {
+        return this.frequency;
+    }
+
     /**
      * Gathers a diagnostic string to display or log.
      *
@@ -58,6 +58,8 @@ public final class ClientBlockUpdateHandler {
     // Callback that is inserted into ClientWorld processing via ASM
     public static void blockUpdateCallback(@Nonnull final ClientLevel world, @Nonnull final BlockPos pos, @Nonnull final BlockState state) {
         updates.add(Pair.of(interval + TICK_OFFSET, pos));
+        // Snapshots need to see the change right away
+        WorldSnapshot.update(pos, state);
     }
 
     @SubscribeEvent(priority = EventPriority.LOW)
@@ -97,6 +99,7 @@ public final class ClientBlockUpdateHandler {
         if (event.getWorld().isClientSide()) {
             updates.clear();
             interval = 0;
+            WorldSnapshot.clear();
         }
     }
 
@@ -0,0 +1,500 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.lib.world;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.util.SimpleBitStorage;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.phys.shapes.CollisionContext;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.orecruncher.lib.service.IModuleService;
+import org.orecruncher.lib.service.ModuleServiceManager;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Immutable capture of the block states in the chunk sections surrounding a point in the world.  A snapshot is
+ * built on the client thread, and can then be read freely from background threads without touching the live
+ * client world.  Each section is held as a copy of its palette compressed container, and copies are reused between
+ * snapshots until the underlying section is replaced.  A block change replaces the cached copy with one that has just
+ * that block updated.  Positions outside the captured
+ * area are reported as air.
+ *
+ * Along with the states each section carries a coarse occupancy map: one bit per 4x4x4 cell, one bit per block for
+ * anything that is not plain air, and one bit per block for simple solid cubes.  Ray tracers use it to skip over
+ * empty space and to resolve hits against full cubes without consulting VoxelShapes.
+ */
+@OnlyIn(Dist.CLIENT)
+public final class WorldSnapshot implements BlockGetter {
+
+    /**
+     * Number of chunks captured on either side of the center point.
+     */
+    public static final int HORIZONTAL_RADIUS = 4;
+    /**
+     * Number of chunk sections captured above and below the center point.
+     */
+    public static final int VERTICAL_RADIUS = 4;
+
+    private static final int DIAMETER_XZ = HORIZONTAL_RADIUS * 2 + 1;
+    private static final int DIAMETER_Y = VERTICAL_RADIUS * 2 + 1;
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    /**
+     * Extent returned by getEmptyExtent() when the block at the position is occupied.
+     */
+    public static final int OCCUPIED = -1;
+    private static final int SECTION_EXTENT = 4;
+    private static final int CELL_EXTENT = 2;
+    private static final int BLOCK_EXTENT = 0;
+
+    private static final byte STATE_EMPTY = 0;
+    private static final byte STATE_OCCUPIED = 1;
+    private static final byte STATE_SOLID = 2;
+    private static final byte STATE_UNCLASSIFIED = -1;
+    private static final int SECTION_BLOCKS = 16 * 16 * 16;
+    // Bits per entry above which a container uses the global palette rather than a local one
+    private static final int MAX_LOCAL_PALETTE_BITS = 8;
+
+    /**
+     * Snapshot that has no content.  Every position is air.
+     */
+    public static final WorldSnapshot EMPTY = new WorldSnapshot();
+
+    // Copies of sections that have been captured, keyed by section position.  Only touched by the client thread.
+    private static final Long2ObjectOpenHashMap<CachedSection> CACHE = new Long2ObjectOpenHashMap<>(1024);
+    // Occupancy classification of BlockStates indexed by their registry id.  Only touched by the client thread.
+    private static byte[] stateClass = new byte[0];
+    private static int generation;
+
+    private final int minSectionX;
+    private final int minSectionY;
+    private final int minSectionZ;
+    private final int minBuildHeight;
+    private final int height;
+    private final Section[] sections;
+
+    private WorldSnapshot() {
+        this(0, 0, 0, 0, 0);
+    }
+
+    private WorldSnapshot(final int minSectionX, final int minSectionY, final int minSectionZ, final int minBuildHeight, final int height) {
+        this.minSectionX = minSectionX;
+        this.minSectionY = minSectionY;
+        this.minSectionZ = minSectionZ;
+        this.minBuildHeight = minBuildHeight;
+        this.height = height;
+        this.sections = new Section[DIAMETER_XZ * DIAMETER_XZ * DIAMETER_Y];
+    }
+
+    /**
+     * Captures the chunk sections around the specified position.  Must be called from the client thread.
+     *
+     * @param world  The world to capture
+     * @param center Center point of the capture
+     * @return Snapshot of the area
+     */
+    @Nonnull
+    public static WorldSnapshot capture(@Nonnull final Level world, @Nonnull final BlockPos center) {
+        final int gen = ++generation;
+        final int centerX = SectionPos.blockToSectionCoord(center.getX());
+        final int centerY = SectionPos.blockToSectionCoord(center.getY());
+        final int centerZ = SectionPos.blockToSectionCoord(center.getZ());
+
+        final WorldSnapshot snapshot = new WorldSnapshot(
+                centerX - HORIZONTAL_RADIUS,
+                centerY - VERTICAL_RADIUS,
+                centerZ - HORIZONTAL_RADIUS,
+                world.getMinBuildHeight(),
+                world.getHeight());
+
+        for (int x = 0; x < DIAMETER_XZ; x++) {
+            for (int z = 0; z < DIAMETER_XZ; z++) {
+                final int sectionX = snapshot.minSectionX + x;
+                final int sectionZ = snapshot.minSectionZ + z;
+                final ChunkAccess chunk = world.getChunk(sectionX, sectionZ, ChunkStatus.FULL, false);
+                if (chunk == null)
+                    continue;
+                final LevelChunkSection[] chunkSections = chunk.getSections();
+                for (int y = 0; y < DIAMETER_Y; y++) {
+                    final int sectionY = snapshot.minSectionY + y;
+                    final int idx = world.getSectionIndexFromSectionY(sectionY);
+                    if (idx < 0 || idx >= chunkSections.length)
+                        continue;
+                    final LevelChunkSection section = chunkSections[idx];
+                    if (section == null || section.hasOnlyAir())
+                        continue;
+                    snapshot.sections[index(x, y, z)] = getSection(SectionPos.asLong(sectionX, sectionY, sectionZ), section, gen);
+                }
+            }
+        }
+
+        // Toss copies that are no longer in range of the capture
+        CACHE.values().removeIf(e -> e.generation != gen);
+
+        return snapshot;
+    }
+
+    public static void initialize() {
+        ModuleServiceManager.instance().add(new WorldSnapshotService());
+    }
+
+    /**
+     * Indicates that the block at the specified position has changed.  The cached copy of the section containing it
+     * is replaced by one with only that block updated.  Snapshots that were already captured are not affected.  Must
+     * be called from the client thread.
+     *
+     * @param pos   Position of the block that changed
+     * @param state The new state of the block
+     */
+    public static void update(@Nonnull final BlockPos pos, @Nonnull final BlockState state) {
+        final long key = SectionPos.asLong(
+                SectionPos.blockToSectionCoord(pos.getX()),
+                SectionPos.blockToSectionCoord(pos.getY()),
+                SectionPos.blockToSectionCoord(pos.getZ()));
+        final CachedSection entry = CACHE.get(key);
+        if (entry == null)
+            return;
+        if (entry.section == null) {
+            // Nothing was kept of an empty section, so it has to be captured again
+            CACHE.remove(key);
+        } else {
+            entry.section = entry.section.with(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15, state);
+        }
+    }
+
+    /**
+     * Discards all cached section copies.  Must be called from the client thread.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    @Nullable
+    private static Section getSection(final long key, @Nonnull final LevelChunkSection section, final int gen) {
+        CachedSection entry = CACHE.get(key);
+        if (entry == null || entry.source != section) {
+            entry = new CachedSection(section, Section.capture(section.getStates().copy()));
+            CACHE.put(key, entry);
+        }
+        entry.generation = gen;
+        return entry.section;
+    }
+
+    private static byte classify(@Nonnull final BlockState state) {
+        return classify(Block.BLOCK_STATE_REGISTRY.getId(state));
+    }
+
+    private static byte classify(final int id) {
+        if (id < 0)
+            return STATE_OCCUPIED;
+        if (id >= stateClass.length) {
+            final int oldLength = stateClass.length;
+            stateClass = Arrays.copyOf(stateClass, Math.max(id + 1, Block.BLOCK_STATE_REGISTRY.size()));
+            Arrays.fill(stateClass, oldLength, stateClass.length, STATE_UNCLASSIFIED);
+        }
+        byte result = stateClass[id];
+        if (result == STATE_UNCLASSIFIED) {
+            final BlockState state = Block.BLOCK_STATE_REGISTRY.byId(id);
+            result = state == null ? STATE_OCCUPIED : classifyImpl(state);
+            stateClass[id] = result;
+        }
+        return result;
+    }
+
+    private static byte classifyImpl(@Nonnull final BlockState state) {
+        if (state.isAir() && state.getFluidState().isEmpty())
+            return STATE_EMPTY;
+        try {
+            // A solid cube has to look the same no matter which shape a tracer asks for, and cannot have a fluid or
+            // interaction shape that could change the result of the hit.
+            final BlockGetter getter = EmptyBlockGetter.INSTANCE;
+            final BlockPos pos = BlockPos.ZERO;
+            final CollisionContext ctx = CollisionContext.empty();
+            if (state.getFluidState().isEmpty()
+                    && Block.isShapeFullBlock(state.getCollisionShape(getter, pos, ctx))
+                    && Block.isShapeFullBlock(state.getShape(getter, pos, ctx))
+                    && Block.isShapeFullBlock(state.getVisualShape(getter, pos, ctx))
+                    && state.getInteractionShape(getter, pos).isEmpty())
+                return STATE_SOLID;
+        } catch (@Nonnull final Throwable ignore) {
+            // Some blocks want more of a world than we can give.  They get the normal treatment.
+        }
+        return STATE_OCCUPIED;
+    }
+
+    private static int index(final int x, final int y, final int z) {
+        return (y * DIAMETER_XZ + z) * DIAMETER_XZ + x;
+    }
+
+    @Nullable
+    private Section sectionFor(final int x, final int y, final int z) {
+        final int sx = SectionPos.blockToSectionCoord(x) - this.minSectionX;
+        final int sy = SectionPos.blockToSectionCoord(y) - this.minSectionY;
+        final int sz = SectionPos.blockToSectionCoord(z) - this.minSectionZ;
+        if (sx < 0 || sx >= DIAMETER_XZ || sy < 0 || sy >= DIAMETER_Y || sz < 0 || sz >= DIAMETER_XZ)
+            return null;
+        return this.sections[index(sx, sy, sz)];
+    }
+
+    @Nonnull
+    public BlockState getBlockState(final int x, final int y, final int z) {
+        final Section section = sectionFor(x, y, z);
+        if (section == null)
+            return AIR;
+        return section.states.get(x & 15, y & 15, z & 15);
+    }
+
+    /**
+     * Determines the size of the empty, aligned cube that contains the specified position.
+     *
+     * @return log2 of the edge length of the empty cube (4 for a whole section, 2 for a 4x4x4 cell, 0 for a single
+     * block), or OCCUPIED if the block at the position is not empty.
+     */
+    public int getEmptyExtent(final int x, final int y, final int z) {
+        final Section section = sectionFor(x, y, z);
+        if (section == null)
+            return SECTION_EXTENT;
+        if (section.isSolid)
+            return OCCUPIED;
+        if ((section.cells & (1L << Section.cellIndex(x & 15, y & 15, z & 15))) == 0)
+            return CELL_EXTENT;
+        return Section.test(section.occupied, x & 15, y & 15, z & 15) ? OCCUPIED : BLOCK_EXTENT;
+    }
+
+    /**
+     * Determines if the block at the specified position is a simple solid cube.  Such blocks have full collision,
+     * outline, and visual shapes, no fluid, and no interaction shape.
+     */
+    public boolean isSolidCube(final int x, final int y, final int z) {
+        final Section section = sectionFor(x, y, z);
+        if (section == null)
+            return false;
+        return section.isSolid || Section.test(section.solid, x & 15, y & 15, z & 15);
+    }
+
+    @Override
+    @Nonnull
+    public BlockState getBlockState(@Nonnull final BlockPos pos) {
+        return getBlockState(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    @Override
+    @Nonnull
+    public FluidState getFluidState(@Nonnull final BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Override
+    @Nullable
+    public BlockEntity getBlockEntity(@Nonnull final BlockPos pos) {
+        // Block entities are live objects and are not captured
+        return null;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public int getMinBuildHeight() {
+        return this.minBuildHeight;
+    }
+
+    private static final class CachedSection {
+        final LevelChunkSection source;
+        Section section;
+        int generation;
+
+        CachedSection(@Nonnull final LevelChunkSection source, @Nullable final Section section) {
+            this.source = source;
+            this.section = section;
+        }
+    }
+
+    private static final class Section {
+        final PalettedContainer<BlockState> states;
+        // One bit per 4x4x4 cell that contains at least one occupied block
+        final long cells;
+        // One bit per block, indexed y/z/x
+        final long[] occupied;
+        final long[] solid;
+        // Every block in the section is a solid cube
+        final boolean isSolid;
+
+        private Section(@Nonnull final PalettedContainer<BlockState> states, final long cells, @Nonnull final long[] occupied, @Nonnull final long[] solid, final boolean isSolid) {
+            this.states = states;
+            this.cells = cells;
+            this.occupied = occupied;
+            this.solid = solid;
+            this.isSolid = isSolid;
+        }
+
+        /**
+         * Classifies the blocks of the captured states.  Returns null if there is nothing in the section that a
+         * tracer could hit.
+         *
+         * The container does not expose its palette or storage, so they are read back from its network form.  Each
+         * palette entry is classified once, and a block is classified through its palette index.  The storage order
+         * of a section is y/z/x, which is the same as the bit index.
+         */
+        @Nullable
+        static Section capture(@Nonnull final PalettedContainer<BlockState> states) {
+            final FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer(states.getSerializedSize()));
+            try {
+                states.write(buffer);
+                final int bits = buffer.readUnsignedByte();
+
+                // A single value palette has no storage; every block is the same
+                if (bits == 0) {
+                    final byte type = classify(buffer.readVarInt());
+                    if (type == STATE_EMPTY)
+                        return null;
+                    final long[] all = new long[64];
+                    Arrays.fill(all, -1L);
+                    return new Section(states, -1L, all, type == STATE_SOLID ? all : new long[64], type == STATE_SOLID);
+                }
+
+                // Local palettes map storage values to registry ids.  The global palette stores the ids directly.
+                byte[] palette = null;
+                if (bits <= MAX_LOCAL_PALETTE_BITS) {
+                    palette = new byte[buffer.readVarInt()];
+                    for (int i = 0; i < palette.length; i++)
+                        palette[i] = classify(buffer.readVarInt());
+                }
+
+                final SimpleBitStorage storage = new SimpleBitStorage(bits, SECTION_BLOCKS, buffer.readLongArray(null));
+                final long[] occupied = new long[64];
+                final long[] solid = new long[64];
+                long cells = 0;
+                int solidCount = 0;
+                for (int idx = 0; idx < SECTION_BLOCKS; idx++) {
+                    final int value = storage.get(idx);
+                    final byte type = palette != null ? palette[value] : classify(value);
+                    if (type == STATE_EMPTY)
+                        continue;
+                    occupied[idx >> 6] |= 1L << idx;
+                    cells |= 1L << cellIndex(idx & 15, idx >> 8, (idx >> 4) & 15);
+                    if (type == STATE_SOLID) {
+                        solid[idx >> 6] |= 1L << idx;
+                        solidCount++;
+                    }
+                }
+
+                if (cells == 0)
+                    return null;
+                return new Section(states, cells, occupied, solid, solidCount == SECTION_BLOCKS);
+            } finally {
+                buffer.release();
+            }
+        }
+
+        /**
+         * Creates a copy of the section with a single block changed.  Sections are shared with snapshots that may be
+         * read by other threads, so they are never modified in place.
+         */
+        @Nonnull
+        Section with(final int x, final int y, final int z, @Nonnull final BlockState state) {
+            final PalettedContainer<BlockState> copy = this.states.copy();
+            copy.getAndSetUnchecked(x, y, z, state);
+
+            final byte type = classify(state);
+            final int idx = bitIndex(x, y, z);
+            final long[] newOccupied = this.occupied.clone();
+            final long[] newSolid = this.solid.clone();
+            if (type == STATE_EMPTY)
+                newOccupied[idx >> 6] &= ~(1L << idx);
+            else
+                newOccupied[idx >> 6] |= 1L << idx;
+            if (type == STATE_SOLID)
+                newSolid[idx >> 6] |= 1L << idx;
+            else
+                newSolid[idx >> 6] &= ~(1L << idx);
+
+            // The cell stays occupied as long as any of its blocks are
+            final int cell = cellIndex(x, y, z);
+            long newCells = this.cells & ~(1L << cell);
+            final int baseX = x & ~3;
+            final int baseY = y & ~3;
+            final int baseZ = z & ~3;
+            scan:
+            for (int dy = 0; dy < 4; dy++)
+                for (int dz = 0; dz < 4; dz++)
+                    for (int dx = 0; dx < 4; dx++)
+                        if (test(newOccupied, baseX + dx, baseY + dy, baseZ + dz)) {
+                            newCells |= 1L << cell;
+                            break scan;
+                        }
+
+            return new Section(copy, newCells, newOccupied, newSolid, this.isSolid && type == STATE_SOLID);
+        }
+
+        static int bitIndex(final int x, final int y, final int z) {
+            return (y << 8) | (z << 4) | x;
+        }
+
+        static int cellIndex(final int x, final int y, final int z) {
+            return ((y >> 2) << 4) | ((z >> 2) << 2) | (x >> 2);
+        }
+
+        static boolean test(@Nonnull final long[] bits, final int x, final int y, final int z) {
+            final int idx = bitIndex(x, y, z);
+            return (bits[idx >> 6] & (1L << idx)) != 0;
+        }
+    }
+
+    private static class WorldSnapshotService implements IModuleService {
+
+        @Override
+        public String name() {
+            return "WorldSnapshot";
+        }
+
+        @Override
+        public void start() {
+
+        }
+
+        @Override
+        public void stop() {
+            // Block shapes can change with resources so states have to be classified again
+            CACHE.clear();
+            stateClass = new byte[0];
+        }
+    }
+}
@@ -576,5 +576,17 @@ public final class FootstepLibrary {
 
             ForgeUtils.getBlockStates().forEach(state -> ((IMixinFootstepData) state).setAcoustics(null));
         }
+
+        @Override
+        public void precache(@Nonnull final BlockState state) {
+            getCachedAcoustics(state);
+            hasFootprint(state);
+        }
+
+        @Override
+        public boolean isPrecacheThreadSafe() {
+            // Resolving primitive acoustics registers new acoustics with the library as it goes
+            return false;
+        }
     }
 }
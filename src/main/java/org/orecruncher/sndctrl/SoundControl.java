@@ -34,8 +34,10 @@ import org.orecruncher.lib.effects.EntityEffectHandler;
 import org.orecruncher.lib.effects.entity.CapabilityEntityFXData;
 import org.orecruncher.lib.logging.ModLog;
 import org.orecruncher.lib.random.XorShiftRandom;
+import org.orecruncher.lib.world.WorldSnapshot;
 import org.orecruncher.sndctrl.api.IMC;
 import org.orecruncher.sndctrl.audio.AudioEngine;
+import org.orecruncher.sndctrl.audio.SoundPrefetcher;
 import org.orecruncher.sndctrl.config.Config;
 import org.orecruncher.sndctrl.gui.Keys;
 import org.orecruncher.sndctrl.library.AcousticLibrary;
@@ -105,6 +107,8 @@ public final class SoundControl {
         // acoustic, so we only want to create a SimpleAcoustic if it does not exist in the map.
         SoundLibrary.initialize();
         AcousticLibrary.initialize();
+        SoundPrefetcher.initialize();
+        WorldSnapshot.initialize();
     }
 
 }
@@ -20,12 +20,14 @@ package org.orecruncher.sndctrl.api.acoustics;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
 import javax.annotation.Nonnull;
+import java.util.function.Consumer;
 
 @OnlyIn(Dist.CLIENT)
 public interface IAcoustic {
@@ -96,4 +98,11 @@ public interface IAcoustic {
     }
 
     IAcousticFactory getFactory(@Nonnull final AcousticEvent event);
+
+    /**
+     * Visits the sounds that the acoustic can play.  Used to find the sounds worth preloading.
+     */
+    default void forEachSound(@Nonnull final Consumer<SoundEvent> consumer) {
+
+    }
 }
@@ -156,6 +156,11 @@ public class SoundBuilder {
         return this.soundEvent.getLocation();
     }
 
+    @Nonnull
+    public SoundEvent getSoundEvent() {
+        return this.soundEvent;
+    }
+
     @Nonnull
     public SoundBuilder setCategory(@Nonnull final ISoundCategory cat) {
         this.soundCategory = cat;
@@ -19,6 +19,7 @@
 package org.orecruncher.sndctrl.audio;
 
 import com.google.common.collect.ImmutableList;
+import com.mojang.blaze3d.audio.Channel;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
@@ -40,6 +41,7 @@ import org.orecruncher.lib.logging.IModLog;
 import org.orecruncher.sndctrl.SoundControl;
 import org.orecruncher.sndctrl.api.sound.ISoundInstance;
 import org.orecruncher.sndctrl.config.Config;
+import org.orecruncher.sndctrl.misc.IMixinSoundContext;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -47,6 +49,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -61,6 +65,14 @@ public final class AudioEngine {
     private static final String FMT_DBG_SOUND = ChatFormatting.GOLD + "%s: %d";
     private static final ReferenceOpenHashSet<ISoundInstance> playingSounds = new ReferenceOpenHashSet<>(256);
 
+    // Transitions reported by the sound engine hooks.  Channel releases are reported from the sound thread.
+    private static final ConcurrentLinkedQueue<ISoundInstance> playAttempts = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<ISoundInstance> releases = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean stoppedAll = new AtomicBoolean();
+
+    // Sounds whose channel has been released but that the sound engine has not dropped from its lists yet
+    private static final ReferenceOpenHashSet<ISoundInstance> releasing = new ReferenceOpenHashSet<>(64);
+
     @Nonnull
     private static List<String> diagnostics = ImmutableList.of();
     @Nullable
@@ -85,6 +97,7 @@ public final class AudioEngine {
                 // Delayed sounds are held in a separate queue in the engine thus there is nothing to stop.
                 sound.setState(SoundState.DONE);
                 SoundUtils.getDelayedSounds().remove(sound);
+                playingSounds.remove(sound);
             } else {
                 // Tell Minecraft to stop the sound.  Termination will be detected in the client tick handler.
                 sound.setState(SoundState.STOPPING);
@@ -132,8 +145,9 @@ public final class AudioEngine {
             GameUtils.getSoundHander().playDelayed(sound, sound.getPlayDelay());
             sound.setState(SoundState.DELAYED);
             playingSounds.add(sound);
-        } else if (SoundUtils.hasRoom()) {
-            // Play the sound now
+        } else {
+            // Play the sound now.  The play event handler applies the block list and rate limits, and then makes
+            // room by evicting a lower priority sound if needed.
             try {
                 playedSound = null;
                 GameUtils.getSoundHander().play(sound);
@@ -177,8 +191,8 @@ public final class AudioEngine {
     }
 
     /**
-     * Run down our active sound list checking that they are still active. If they
-     * aren't update the state accordingly.
+     * Apply the sound state transitions reported by the sound engine since the last tick.  Only the sounds that
+     * were reported are examined rather than every sound that is being tracked.
      *
      * @param event Event that was raised
      */
@@ -191,45 +205,29 @@ public final class AudioEngine {
         final Map<SoundInstance, ChannelHandle> playing = SoundUtils.getPlayingSounds();
 
         /*
-         Process our queued sounds to make sure the state is appropriate. A sound can move between the playing sound
-         list and the delayed sound list based on its attributes so we need to make sure we detect that.
+         A sound can move between the playing sound list and the delayed sound list based on its attributes so we
+         need to make sure we detect that.  Sounds that the engine attempted to play can be resolved right away.
+         Sounds that had their channel released are held until the engine drops them from the playing list, which
+         can lag behind the release by a few ticks.
 
          We cannot rely on isSoundPlaying(). It can return FALSE even though the sound is in the internal playing
          lists. We only want to transition if the sound is in the playing lists or not.
         */
-        for (final ISoundInstance sound : playingSounds) {
-            final SoundState currentState = sound.getState();
-            final boolean isPlaying = playing.containsKey(sound);
-
-            switch (currentState) {
-                case DELAYED:
-                    // The sound play is delayed. Check to see if Minecraft transitioned it's state.
-                    if (!delayedSounds.containsKey(sound)) {
-                        sound.setState(isPlaying ? SoundState.PLAYING : SoundState.DONE);
-                    }
-                    break;
-                case STOPPING:
-                    if (!isPlaying) {
-                        sound.setState(SoundState.DONE);
-                    }
-                    break;
-                case PLAYING:
-                    // The sound is playing. Check to see if the Minecraft sound engine transitioned to a
-                    // different state.
-                    if (!isPlaying) {
-                        sound.setState(delayedSounds.containsKey(sound) ? SoundState.DELAYED : SoundState.DONE);
-                    }
-                    break;
-                default:
-                    // This should not happen, but to be safe set to a terminal state
-                    LOGGER.debug(Config.Flags.SOUND_PLAY, () -> String.format("Incorrect sound state [%s]", sound));
-                    sound.setState(SoundState.ERROR);
-                    break;
-            }
+        ISoundInstance sound;
+        while ((sound = playAttempts.poll()) != null) {
+            if (playingSounds.contains(sound))
+                settle(sound, playing, delayedSounds);
         }
 
-        // Process any sounds in a terminal state.
-        processTerminalSounds();
+        while ((sound = releases.poll()) != null) {
+            if (playingSounds.contains(sound))
+                releasing.add(sound);
+        }
+
+        if (stoppedAll.getAndSet(false))
+            releasing.addAll(playingSounds);
+
+        releasing.removeIf(s -> !playingSounds.contains(s) || settle(s, playing, delayedSounds));
 
         // Generate diagnostics if needed.
         if (processDiagnostics() && Minecraft.getInstance().options.renderDebug) {
@@ -249,8 +247,62 @@ public final class AudioEngine {
         }
     }
 
+    /**
+     * Updates the state of the sound, and stops tracking it if it reached a terminal state.
+     *
+     * @return true if the state of the sound is settled, false if it is waiting on the sound engine to drop it
+     */
+    private static boolean settle(@Nonnull final ISoundInstance sound, @Nonnull final Map<SoundInstance, ChannelHandle> playing, @Nonnull final Map<SoundInstance, Integer> delayedSounds) {
+        final boolean settled = updateState(sound, playing, delayedSounds);
+        if (sound.getState().isTerminal())
+            playingSounds.remove(sound);
+        return settled;
+    }
+
+    /**
+     * Updates the state of the sound based on whether it is in the sound engine's playing and delayed lists.
+     *
+     * @return true if the state of the sound is settled, false if it is waiting on the sound engine to drop it
+     */
+    private static boolean updateState(@Nonnull final ISoundInstance sound, @Nonnull final Map<SoundInstance, ChannelHandle> playing, @Nonnull final Map<SoundInstance, Integer> delayedSounds) {
+        final SoundState currentState = sound.getState();
+        if (currentState.isTerminal())
+            return true;
+
+        final boolean isPlaying = playing.containsKey(sound);
+
+        switch (currentState) {
+            case DELAYED:
+                // The sound play is delayed. Check to see if Minecraft transitioned it's state.
+                if (!delayedSounds.containsKey(sound)) {
+                    sound.setState(isPlaying ? SoundState.PLAYING : SoundState.DONE);
+                }
+                return true;
+            case STOPPING:
+                if (!isPlaying) {
+                    sound.setState(SoundState.DONE);
+                    return true;
+                }
+                return false;
+            case PLAYING:
+                // The sound is playing. Check to see if the Minecraft sound engine transitioned to a
+                // different state.
+                if (!isPlaying) {
+                    sound.setState(delayedSounds.containsKey(sound) ? SoundState.DELAYED : SoundState.DONE);
+                    return true;
+                }
+                return false;
+            default:
+                // This should not happen, but to be safe set to a terminal state
+                LOGGER.debug(Config.Flags.SOUND_PLAY, () -> String.format("Incorrect sound state [%s]", sound));
+                sound.setState(SoundState.ERROR);
+                return true;
+        }
+    }
+
     private static void processTerminalSounds() {
         playingSounds.removeIf(s -> s.getState().isTerminal());
+        releasing.removeIf(s -> s.getState().isTerminal());
     }
 
     @SubscribeEvent(priority = EventPriority.LOW)
@@ -268,15 +320,54 @@ public final class AudioEngine {
         MinecraftForge.EVENT_BUS.register(AudioEngine.class);
     }
 
+    /**
+     * Hook that is called when the sound engine attempts to play a sound, either directly or because a delayed sound
+     * came off the queue.
+     *
+     * @param sound Sound that is being played
+     */
+    public static void onPlayAttempt(@Nonnull final SoundInstance sound) {
+        if (sound instanceof ISoundInstance)
+            playAttempts.offer((ISoundInstance) sound);
+    }
+
+    /**
+     * Hook that is called when the sound engine drops all of its sounds.
+     */
+    public static void onStopAll() {
+        stoppedAll.set(true);
+    }
+
+    /**
+     * Hook that is called from the sound thread when a channel is released by the sound engine.
+     *
+     * @param channel Channel that is being released
+     */
+    public static void onChannelRelease(@Nonnull final Channel channel) {
+        final IMixinSoundContext ctx = (IMixinSoundContext) channel;
+        final ISoundInstance sound = ctx.getTrackedSound();
+        if (sound != null) {
+            ctx.setTrackedSound(null);
+            releases.offer(sound);
+        }
+    }
+
     /**
      * Hook that is called when the sound is actually being queued down into the engine.  Use this to determine
      * what actually got played and to perform logging.  The standard sound listener will not receive callbacks if
      * the sound is too far away (based on the sound instance distance value).
      * @param sound Sound that is being queued into the audio engine
+     * @param entry Channel handle the sound is playing on
      */
-    public static void onPlaySound(@Nonnull final SoundInstance sound) {
+    public static void onPlaySound(@Nonnull final SoundInstance sound, @Nonnull final ChannelHandle entry) {
         playedSound = sound;
-        if (!(playedSound instanceof ISoundInstance)) {
+        VoiceManager.onPlaySound(sound);
+        if (playedSound instanceof ISoundInstance) {
+            final ISoundInstance instance = (ISoundInstance) playedSound;
+            playAttempts.offer(instance);
+            // Queued behind the play on the sound executor so it is in place before the channel can be released
+            entry.execute(channel -> ((IMixinSoundContext) channel).setTrackedSound(instance));
+        } else {
             LOGGER.debug(Config.Flags.BASIC_SOUND_PLAY, () -> String.format("PLAYING: [%s]", SoundUtils.debugString(playedSound)));
         }
     }
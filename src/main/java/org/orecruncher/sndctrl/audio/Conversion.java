@@ -19,34 +19,26 @@
 package org.orecruncher.sndctrl.audio;
 
 import com.mojang.blaze3d.audio.SoundBuffer;
-import net.minecraft.client.sounds.AudioStream;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
 import javax.annotation.Nonnull;
 import javax.sound.sampled.AudioFormat;
-import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 
 @OnlyIn(Dist.CLIENT)
 public final class Conversion {
 
-    /**
-     * Handles the conversion of the incoming IAudioStream into mono format as needed.
-     *
-     * @param inputStream The audio stream that is to be played
-     * @return An IAudioStream that is in mono format
-     */
-    public static AudioStream convert(@Nonnull final AudioStream inputStream) {
-        final AudioFormat format = inputStream.getFormat();
-        if (format.getChannels() == 1)
-            return inputStream;
-
-        return new MonoStream(inputStream);
-    }
+    // Number of samples moved through the downmix at a time.  Must be even so chunks hold whole frames.
+    private static final int CHUNK_SAMPLES = 2048;
+    private static final ThreadLocal<byte[]> BYTE_CHUNK = ThreadLocal.withInitial(() -> new byte[CHUNK_SAMPLES]);
+    private static final ThreadLocal<short[]> SHORT_CHUNK = ThreadLocal.withInitial(() -> new short[CHUNK_SAMPLES]);
 
     /**
-     * Converts the AudioStreamBuffer into mono if needed.
+     * Converts the AudioStreamBuffer into mono if needed.  The buffer is patched in place.  Buffers are cached by
+     * the sound engine for the resource they were decoded from, so an asset is converted once and later plays see
+     * the mono format and are returned as is.
      *
      * @param buffer Audio stream buffer to convert
      * @return Converted audio buffer
@@ -55,75 +47,86 @@ public final class Conversion {
 
         final AudioFormat format = buffer.format;
 
-        // If it is already mono return original buffer
-        if (format.getChannels() == 1)
+        // If it is already mono, or is a sample size we don't handle, return original buffer
+        if (!canConvert(format))
             return buffer;
 
-        // If the sample size is not 8 or 16 bits just return the original
-        int bits = format.getSampleSizeInBits();
-        if (bits != 8 && bits != 16)
-            return buffer;
-
-        // Do the conversion.  Essentially it averages the values in the source buffer based on the sample size.
-        boolean bigendian = format.isBigEndian();
-        final AudioFormat monoformat = new AudioFormat(
-                format.getEncoding(),
-                format.getSampleRate(),
-                bits,
-                1, // Mono - single channel
-                format.getFrameSize() >> 1,
-                format.getFrameRate(),
-                bigendian);
-
         final ByteBuffer source = buffer.data;
         if (source == null) {
             return buffer;
         }
 
-        final int sourceLength = source.limit();
-        final int skip = format.getFrameSize();
-        for (int i = 0; i < sourceLength; i += skip) {
-            final int targetIdx = i >> 1;
-            if (bits == 8) {
-                final int c1 = source.get(i) >> 1;
-                final int c2 = source.get(i + 1) >> 1;
-                final int v = c1 + c2;
-                source.put(targetIdx, (byte) v);
-            } else {
-                final int c1 = source.getShort(i) >> 1;
-                final int c2 = source.getShort(i + 2) >> 1;
-                final int v = c1 + c2;
-                source.putShort(targetIdx, (short) v);
-            }
-        }
+        final int length = downmix(source, format);
+
         // Patch up the old object
-        buffer.format = monoformat;
-        buffer.data.rewind();
-        buffer.data.limit(sourceLength >> 1);
+        buffer.format = toMono(format);
+        source.limit(source.position() + length);
         return buffer;
     }
 
-    private static class MonoStream implements AudioStream {
-
-        private final AudioStream source;
-
-        public MonoStream(@Nonnull final AudioStream source) {
-            this.source = source;
-        }
+    private static boolean canConvert(@Nonnull final AudioFormat format) {
+        if (format.getChannels() != 2)
+            return false;
+        // If the sample size is not 8 or 16 bits it can't be converted
+        final int bits = format.getSampleSizeInBits();
+        return bits == 8 || bits == 16;
+    }
 
-        @Override
-        public AudioFormat getFormat() {
-            return this.source.getFormat();
-        }
+    @Nonnull
+    private static AudioFormat toMono(@Nonnull final AudioFormat format) {
+        return new AudioFormat(
+                format.getEncoding(),
+                format.getSampleRate(),
+                format.getSampleSizeInBits(),
+                1, // Mono - single channel
+                format.getFrameSize() >> 1,
+                format.getFrameRate(),
+                format.isBigEndian());
+    }
 
-        @Override
-        public ByteBuffer read(int size) throws IOException {
-            return this.source.read(size);
+    /**
+     * Downmixes the stereo samples between the start and limit of the buffer into mono, writing the result to the
+     * front of the buffer.  Essentially it averages the values of the two channels based on the sample size.  The
+     * samples are moved in fixed size chunks through a small per thread array so the averaging is a simple loop over
+     * primitives, without a temporary copy of the whole buffer.  Mono samples land before the stereo samples that
+     * have yet to be read, so the chunks can be written back in place.
+     *
+     * @param data   Buffer containing the stereo samples
+     * @param format Format of the data in the buffer
+     * @return Length of the mono data, in bytes, starting at the buffer position
+     */
+    private static int downmix(@Nonnull final ByteBuffer data, @Nonnull final AudioFormat format) {
+        final int frameSize = format.getFrameSize();
+        final int frames = data.remaining() / frameSize;
+        final int samples = frames << 1;
+
+        if (format.getSampleSizeInBits() == 8) {
+            final int start = data.position();
+            final byte[] chunk = BYTE_CHUNK.get();
+            for (int read = 0; read < samples; read += chunk.length) {
+                final int length = Math.min(chunk.length, samples - read);
+                final int mono = length >> 1;
+                data.get(start + read, chunk, 0, length);
+                for (int i = 0; i < mono; i++) {
+                    chunk[i] = (byte) ((chunk[i << 1] >> 1) + (chunk[(i << 1) + 1] >> 1));
+                }
+                data.put(start + (read >> 1), chunk, 0, mono);
+            }
+        } else {
+            // Use the buffer's order for the samples, same as getShort() would
+            final ShortBuffer view = data.duplicate().order(data.order()).asShortBuffer();
+            final short[] chunk = SHORT_CHUNK.get();
+            for (int read = 0; read < samples; read += chunk.length) {
+                final int length = Math.min(chunk.length, samples - read);
+                final int mono = length >> 1;
+                view.get(read, chunk, 0, length);
+                for (int i = 0; i < mono; i++) {
+                    chunk[i] = (short) ((chunk[i << 1] >> 1) + (chunk[(i << 1) + 1] >> 1));
+                }
+                view.put(read >> 1, chunk, 0, mono);
+            }
         }
 
-        @Override
-        public void close() throws IOException {
-            this.source.close();
-        }
+        return frames * (frameSize >> 1);
     }
 }
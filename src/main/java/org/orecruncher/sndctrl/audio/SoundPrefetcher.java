@@ -0,0 +1,184 @@
+/*
+ * Dynamic Surroundings: Sound Control
+ * Copyright (C) 2020 OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.audio;
+
+import com.mojang.blaze3d.audio.SoundBuffer;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.client.resources.sounds.Sound;
+import net.minecraft.client.sounds.SoundEngine;
+import net.minecraft.client.sounds.SoundManager;
+import net.minecraft.client.sounds.WeighedSoundEvents;
+import net.minecraft.client.sounds.Weighted;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import org.orecruncher.lib.GameUtils;
+import org.orecruncher.lib.logging.IModLog;
+import org.orecruncher.lib.service.IModuleService;
+import org.orecruncher.lib.service.ModuleServiceManager;
+import org.orecruncher.sndctrl.SoundControl;
+import org.orecruncher.sndctrl.library.AcousticLibrary;
+import org.orecruncher.sndctrl.misc.IMixinWeighedSoundEvents;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the sounds that are referenced most by the acoustics into the sound engine's buffer cache ahead of time so
+ * that their first play does not have to wait on decoding.  Once the services have reloaded the sound files are
+ * requested one at a time from the client tick.  The decoding itself happens on the game's background executor, and
+ * the next file is not requested until the previous one completes so the prefetch stays out of the way of
+ * everything else.
+ */
+@OnlyIn(Dist.CLIENT)
+public final class SoundPrefetcher {
+    private static final IModLog LOGGER = SoundControl.LOGGER.createChild(SoundPrefetcher.class);
+
+    // Number of the most referenced sound events that will have their sounds prefetched
+    private static final int MAX_EVENTS = 128;
+
+    private static final ArrayDeque<ResourceLocation> pending = new ArrayDeque<>();
+    @Nullable
+    private static CompletableFuture<SoundBuffer> inFlight;
+    private static boolean scheduled;
+    private static boolean active;
+    private static int fetched;
+    private static long startTime;
+
+    private SoundPrefetcher() {
+
+    }
+
+    public static void initialize() {
+        MinecraftForge.EVENT_BUS.register(SoundPrefetcher.class);
+        ModuleServiceManager.instance().add(new SoundPrefetchService());
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOW)
+    public static void onClientTick(@Nonnull final TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END)
+            return;
+
+        try {
+            // Gathering is deferred to the tick so that all the services have finished reloading, and their
+            // acoustics are registered.
+            if (scheduled) {
+                scheduled = false;
+                gather();
+            }
+
+            if (!active)
+                return;
+
+            if (inFlight != null) {
+                if (!inFlight.isDone())
+                    return;
+                inFlight = null;
+            }
+
+            final SoundEngine engine = GameUtils.getSoundHander().soundEngine;
+            final ResourceLocation next = engine.loaded ? pending.poll() : null;
+            if (next == null) {
+                finish();
+                return;
+            }
+
+            inFlight = engine.soundBuffers.getCompleteBuffer(next);
+            fetched++;
+        } catch (@Nonnull final Throwable t) {
+            LOGGER.error(t, "Error prefetching sounds");
+            pending.clear();
+            finish();
+        }
+    }
+
+    private static void gather() {
+        // Count the number of acoustics that reference each sound event
+        final Object2IntOpenHashMap<ResourceLocation> references = new Object2IntOpenHashMap<>();
+        AcousticLibrary.forEach(acoustic -> acoustic.forEachSound(evt -> references.addTo(evt.getLocation(), 1)));
+
+        final SoundManager manager = GameUtils.getSoundHander();
+        final Set<ResourceLocation> files = new LinkedHashSet<>();
+        references.object2IntEntrySet().stream()
+                .sorted(Comparator.comparingInt((Object2IntMap.Entry<ResourceLocation> e) -> e.getIntValue()).reversed())
+                .limit(MAX_EVENTS)
+                .forEach(e -> {
+                    final WeighedSoundEvents evt = manager.getSoundEvent(e.getKey());
+                    if (evt != null)
+                        collect(evt, files);
+                });
+
+        pending.clear();
+        pending.addAll(files);
+        fetched = 0;
+        startTime = System.nanoTime();
+        active = true;
+        LOGGER.debug("Prefetching %d sound files for %d sound events", files.size(), Math.min(MAX_EVENTS, references.size()));
+    }
+
+    /**
+     * Gathers the sound files of an event.  Entries of type "event" in sounds.json are wrappers that look up the
+     * referenced event when asked for a sound, and only hand back one of its sounds picked at random.  The file they
+     * resolve to is what gets prefetched, so only part of a referenced event may end up in the cache.
+     */
+    private static void collect(@Nonnull final WeighedSoundEvents evt, @Nonnull final Set<ResourceLocation> files) {
+        for (final Weighted<Sound> entry : ((IMixinWeighedSoundEvents) evt).getEntries()) {
+            final Sound sound = entry instanceof Sound ? (Sound) entry : entry.getSound();
+            // Streamed sounds do not go through the buffer cache, and preloaded sounds are already in it
+            if (sound != null && sound != SoundManager.EMPTY_SOUND && !sound.shouldStream() && !sound.shouldPreload())
+                files.add(sound.getPath());
+        }
+    }
+
+    private static void finish() {
+        if (active) {
+            active = false;
+            final long duration = System.nanoTime() - startTime;
+            LOGGER.info("Prefetched %d sound files in %dmsecs", fetched, (long) (duration / 1000000D));
+        }
+    }
+
+    private static class SoundPrefetchService implements IModuleService {
+
+        @Override
+        public String name() {
+            return "SoundPrefetcher";
+        }
+
+        @Override
+        public void start() {
+            scheduled = true;
+        }
+
+        @Override
+        public void stop() {
+            pending.clear();
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.orecruncher.lib.logging.IModLog;
 import org.orecruncher.sndctrl.SoundControl;
 import org.orecruncher.sndctrl.api.sound.ISoundInstance;
 import org.orecruncher.sndctrl.audio.handlers.SoundFXProcessor;
+import org.orecruncher.sndctrl.audio.handlers.SoundVolumeEvaluator;
 import org.orecruncher.sndctrl.config.Config;
 
 import javax.annotation.Nonnull;
@@ -88,7 +89,8 @@ public final class SoundUtils {
     }
 
     public static boolean hasRoom() {
-        return getTotalPlaying() < SOUND_LIMIT;
+        // Evicted sounds are on their way out so don't hold them against the limit
+        return getTotalPlaying() - VoiceManager.getPendingEvictions() < SOUND_LIMIT;
     }
 
     static int getTotalPlaying() {
@@ -105,6 +107,24 @@ public final class SoundUtils {
         return delayed;
     }
 
+    /**
+     * Applies the current effective volume of a sound that is already playing to its channel.  Sounds that are not
+     * ticked by the sound engine otherwise keep the volume they started with.
+     *
+     * @param sound Sound whose volume changed
+     */
+    public static void updateVolume(@Nonnull final SoundInstance sound) {
+        final ChannelAccess.ChannelHandle handle = playing.get(sound);
+        if (handle == null)
+            return;
+        final float volume = SoundVolumeEvaluator.getClampedVolume(sound);
+        handle.execute(channel -> {
+            // OpenAL caps the gain of a source at 1 unless told otherwise
+            AL10.alSourcef(channel.source, AL10.AL_MAX_GAIN, Math.max(1F, volume));
+            channel.setVolume(volume);
+        });
+    }
+
     @Nullable
     public static SoundSource getSoundCategory(@Nonnull final String name) {
         return categoryMapper.get(Objects.requireNonNull(name));
@@ -273,6 +293,7 @@ public final class SoundUtils {
 
     public static void deinitialize(@Nonnull final Library soundSystem) {
         SoundFXProcessor.deinitialize();
+        VoiceManager.clear();
     }
 
 }
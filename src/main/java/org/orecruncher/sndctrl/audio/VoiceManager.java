@@ -0,0 +1,215 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.audio;
+
+import it.unimi.dsi.fastutil.objects.Reference2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.client.resources.sounds.Sound;
+import net.minecraft.client.resources.sounds.SoundInstance;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.orecruncher.lib.GameUtils;
+import org.orecruncher.lib.TickCounter;
+import org.orecruncher.lib.logging.IModLog;
+import org.orecruncher.lib.math.MathStuff;
+import org.orecruncher.sndctrl.SoundControl;
+import org.orecruncher.sndctrl.audio.handlers.SoundFXProcessor;
+import org.orecruncher.sndctrl.audio.handlers.SoundVolumeEvaluator;
+import org.orecruncher.sndctrl.config.Config;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which sound gets a channel when the sound engine is out of room.  Rather than dropping the incoming sound
+ * the playing sounds are scored by category, audible volume, distance to the listener, and age.  If the weakest
+ * playing sound scores lower than the incoming sound it is stopped to make room.  Must only be used from the client
+ * thread.
+ */
+@OnlyIn(Dist.CLIENT)
+public final class VoiceManager {
+
+    private static final IModLog LOGGER = SoundControl.LOGGER.createChild(VoiceManager.class);
+
+    private static final float CATEGORY_WEIGHT = 0.4F;
+    private static final float VOLUME_WEIGHT = 0.3F;
+    private static final float DISTANCE_WEIGHT = 0.2F;
+    private static final float AGE_WEIGHT = 0.1F;
+    // Age in ticks at which a sound no longer loses priority for being old
+    private static final float MAX_AGE = 200F;
+    // Attenuation distance to assume for a sound that has not been resolved
+    private static final int DEFAULT_ATTENUATION = 16;
+    // Number of evicted sounds that can be waiting on the engine to release their channel.  Must stay below the
+    // headroom SoundUtils keeps between the play limit and the number of sources.
+    private static final int MAX_PENDING = 8;
+
+    private static final Reference2LongOpenHashMap<SoundInstance> startTicks = new Reference2LongOpenHashMap<>(256);
+    private static final Set<SoundInstance> evicted = new ReferenceOpenHashSet<>(MAX_PENDING);
+
+    private VoiceManager() {
+
+    }
+
+    /**
+     * Number of evicted sounds that still hold a channel in the sound engine.
+     */
+    static int getPendingEvictions() {
+        return evicted.size();
+    }
+
+    /**
+     * Ensures there is room for the incoming sound to play, evicting the lowest priority playing sound if needed.
+     *
+     * @param incoming Sound that is about to be played
+     * @return true if the sound can be played; false if it should be dropped
+     */
+    public static boolean makeRoom(@Nonnull final SoundInstance incoming) {
+        final Map<SoundInstance, ?> playing = SoundUtils.getPlayingSounds();
+        if (!evicted.isEmpty())
+            evicted.removeIf(s -> !playing.containsKey(s));
+
+        if (SoundUtils.hasRoom())
+            return true;
+        if (evicted.size() >= MAX_PENDING)
+            return false;
+
+        final Vec3 listener = getListenerPosition();
+        final long tick = TickCounter.getTickCount();
+        final Reference2FloatOpenHashMap<SoundInstance> directGain = gatherDirectGain();
+
+        SoundInstance victim = null;
+        float lowest = score(incoming, listener, tick, SoundFXProcessor.estimateDirectGain(incoming));
+        for (final SoundInstance sound : playing.keySet()) {
+            if (sound == null || sound.getSound() == null || evicted.contains(sound))
+                continue;
+            final float s = score(sound, listener, tick, directGain.getFloat(sound));
+            if (s < lowest) {
+                lowest = s;
+                victim = sound;
+            }
+        }
+
+        if (victim == null)
+            return false;
+
+        final SoundInstance evict = victim;
+        LOGGER.debug(Config.Flags.SOUND_PLAY, () -> String.format("EVICTING: [%s] for [%s]", SoundUtils.debugString(evict), SoundUtils.debugString(incoming)));
+        evicted.add(victim);
+        startTicks.removeLong(victim);
+        GameUtils.getSoundHander().stop(victim);
+        return true;
+    }
+
+    /**
+     * Records the start of a sound play so its age can be factored into its priority.
+     *
+     * @param sound Sound that was queued into the sound engine
+     */
+    public static void onPlaySound(@Nonnull final SoundInstance sound) {
+        if (startTicks.size() >= SoundUtils.getMaxSounds()) {
+            final Map<SoundInstance, ?> playing = SoundUtils.getPlayingSounds();
+            startTicks.keySet().removeIf(s -> !playing.containsKey(s));
+        }
+        startTicks.put(sound, TickCounter.getTickCount());
+    }
+
+    public static void clear() {
+        startTicks.clear();
+        evicted.clear();
+    }
+
+    private static float score(@Nonnull final SoundInstance sound, @Nullable final Vec3 listener, final long tick, final float directGain) {
+        return getCategoryPriority(sound) * CATEGORY_WEIGHT
+                + getVolume(sound) * directGain * VOLUME_WEIGHT
+                + getProximity(sound, listener) * DISTANCE_WEIGHT
+                + getFreshness(sound, tick) * AGE_WEIGHT;
+    }
+
+    private static float getCategoryPriority(@Nonnull final SoundInstance sound) {
+        switch (sound.getSource()) {
+            case MASTER:
+            case MUSIC:
+            case VOICE:
+                return 1F;
+            case RECORDS:
+                return 0.9F;
+            case PLAYERS:
+                return 0.8F;
+            case HOSTILE:
+                return 0.7F;
+            case NEUTRAL:
+            case BLOCKS:
+                return 0.5F;
+            case WEATHER:
+                return 0.3F;
+            case AMBIENT:
+            default:
+                return 0.2F;
+        }
+    }
+
+    private static float getVolume(@Nonnull final SoundInstance sound) {
+        // An unresolved sound cannot report its volume, so give it the benefit of the doubt
+        if (sound.getSound() == null)
+            return 1F;
+        return SoundVolumeEvaluator.getClampedVolume(sound);
+    }
+
+    private static float getProximity(@Nonnull final SoundInstance sound, @Nullable final Vec3 listener) {
+        if (listener == null || sound.isRelative() || sound.getAttenuation() == SoundInstance.Attenuation.NONE)
+            return 1F;
+        final Sound s = sound.getSound();
+        final int range = s == null ? DEFAULT_ATTENUATION : s.getAttenuationDistance();
+        if (range <= 0)
+            return 0F;
+        final double dist = Math.sqrt(listener.distanceToSqr(sound.getX(), sound.getY(), sound.getZ()));
+        return 1F - MathStuff.clamp1((float) (dist / range));
+    }
+
+    private static float getFreshness(@Nonnull final SoundInstance sound, final long tick) {
+        // Sounds that are not yet playing have no age.  Sounds that were playing before tracking started are
+        // treated as old.
+        if (!startTicks.containsKey(sound))
+            return SoundUtils.getPlayingSounds().containsKey(sound) ? 0F : 1F;
+        return 1F - MathStuff.clamp1((tick - startTicks.getLong(sound)) / MAX_AGE);
+    }
+
+    @Nonnull
+    private static Reference2FloatOpenHashMap<SoundInstance> gatherDirectGain() {
+        final Reference2FloatOpenHashMap<SoundInstance> result = new Reference2FloatOpenHashMap<>(SoundUtils.getMaxSounds());
+        result.defaultReturnValue(1F);
+        SoundFXProcessor.forEachSource(ctx -> {
+            final SoundInstance sound = ctx.getSound();
+            if (sound != null)
+                result.put(sound, ctx.getDirectGain());
+        });
+        return result;
+    }
+
+    @Nullable
+    private static Vec3 getListenerPosition() {
+        final Player player = GameUtils.getPlayer();
+        return player == null ? null : player.getEyePosition(1F);
+    }
+}
@@ -21,6 +21,7 @@ package org.orecruncher.sndctrl.audio.acoustic;
 import com.google.common.base.MoreObjects;
 import net.minecraft.core.BlockPos;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
@@ -34,6 +35,7 @@ import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * An acoustic that will play different sounds based on the AcousticEvent provided.  For example, for a given
@@ -103,6 +105,11 @@ public class EventSelectorAcoustic implements IAcoustic {
         return Optional.ofNullable(acoustic);
     }
 
+    @Override
+    public void forEachSound(@Nonnull final Consumer<SoundEvent> consumer) {
+        this.mapping.values().forEach(a -> a.forEachSound(consumer));
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).addValue(getName().toString()).add("entries", this.mapping.size()).toString();
@@ -21,6 +21,7 @@ package org.orecruncher.sndctrl.audio.acoustic;
 import com.google.common.base.MoreObjects;
 import net.minecraft.core.BlockPos;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
@@ -33,6 +34,7 @@ import org.orecruncher.sndctrl.api.acoustics.IAcousticFactory;
 import javax.annotation.Nonnull;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Plays a random acoustic from a weighted list of selections.
@@ -102,6 +104,11 @@ public class ProbabilityAcoustic implements IAcoustic {
         return select().map(IAcoustic::getFactory).orElse(null);
     }
 
+    @Override
+    public void forEachSound(@Nonnull final Consumer<SoundEvent> consumer) {
+        this.table.forEach(a -> a.forEachSound(consumer));
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).addValue(getName().toString()).add("entries", this.table.size()).toString();
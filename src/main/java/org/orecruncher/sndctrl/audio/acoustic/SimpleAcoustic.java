@@ -35,6 +35,7 @@ import org.orecruncher.sndctrl.audio.AudioEngine;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * A simple acoustic that uses an AcousticFactory to produce sound instances for playing.
@@ -108,6 +109,11 @@ public class SimpleAcoustic implements IAcoustic {
         return this.factory;
     }
 
+    @Override
+    public void forEachSound(@Nonnull final Consumer<SoundEvent> consumer) {
+        consumer.accept(this.factory.getSoundEvent());
+    }
+
     protected void play(@Nonnull final ISoundInstance sound) {
         AudioEngine.play(sound);
     }
@@ -21,6 +21,7 @@ package org.orecruncher.sndctrl.audio.acoustic;
 import com.google.common.base.MoreObjects;
 import net.minecraft.core.BlockPos;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
@@ -32,6 +33,7 @@ import org.orecruncher.sndctrl.api.acoustics.IAcousticFactory;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Plays a group of acoustics simultaneously creating a composite effect
@@ -107,6 +109,12 @@ public class SimultaneousAcoustic implements IAcoustic {
         return null;
     }
 
+    @Override
+    public void forEachSound(@Nonnull final Consumer<SoundEvent> consumer) {
+        for (final IAcoustic a : this.acoustics)
+            a.forEachSound(consumer);
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).addValue(getName().toString()).add("entries", this.acoustics.size()).toString();
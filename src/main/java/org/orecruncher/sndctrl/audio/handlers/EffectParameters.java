@@ -0,0 +1,48 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.audio.handlers;
+
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+/**
+ * Block of effect parameters calculated for a sound source.  A block is filled in by the effect calculation and
+ * handed off to the sound engine thread as a whole; see SourceContext.
+ */
+@OnlyIn(Dist.CLIENT)
+final class EffectParameters {
+
+    // Incremented each time the calculation publishes a block.  Used by the sound thread to tell if a block is newer
+    // than the one it has.
+    long version;
+
+    boolean process;
+
+    float sendGain0;
+    float sendGain1;
+    float sendGain2;
+    float sendGain3;
+    float sendCutoff0;
+    float sendCutoff1;
+    float sendCutoff2;
+    float sendCutoff3;
+    float directGain = 1F;
+    float directCutoff = 1F;
+    float airAbsorptionFactor;
+}
@@ -0,0 +1,105 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.audio.handlers;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares the results of tracing the path from a sound to the listener between sounds that originate from the same
+ * block.  Sounds from the same source, like the step, hurt and ambient sounds of a mob, see the same occlusion and
+ * weather absorption so the work only needs to be done once.  An instance belongs to a WorldContext and is tossed
+ * with it, so results only live for the client tick they were calculated in.
+ */
+@OnlyIn(Dist.CLIENT)
+public final class PathCache {
+
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger misses = new AtomicInteger();
+
+    private final Long2ObjectOpenHashMap<Entry> cache = new Long2ObjectOpenHashMap<>(64);
+
+    public static long blockKey(final double x, final double y, final double z) {
+        return BlockPos.asLong(Mth.floor(x), Mth.floor(y), Mth.floor(z));
+    }
+
+    @Nullable
+    public Entry get(final long key) {
+        final Entry entry;
+        synchronized (this.cache) {
+            entry = this.cache.get(key);
+        }
+        if (entry != null)
+            hits.incrementAndGet();
+        else
+            misses.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Gets the entry for the key without counting it as a lookup by the sound processor.
+     */
+    @Nullable
+    public Entry peek(final long key) {
+        synchronized (this.cache) {
+            return this.cache.get(key);
+        }
+    }
+
+    public void put(final long key, @Nonnull final Entry entry) {
+        synchronized (this.cache) {
+            this.cache.put(key, entry);
+        }
+    }
+
+    @Nonnull
+    public static String getDiagnosticString() {
+        final int h = hits.getAndSet(0);
+        final int total = h + misses.getAndSet(0);
+        return String.format("Path Cache: %d%% hits", total == 0 ? 0 : h * 100 / total);
+    }
+
+    /**
+     * Results of tracing from a source block to the listener.  Occlusion is only present if a sound that is subject
+     * to occlusion has been processed, and records the number of trace segments used so a sound that wants more
+     * detail can redo the trace.
+     */
+    public static final class Entry {
+        public final float airAbsorption;
+        public final float occlusion;
+        public final int occlusionSegments;
+
+        public Entry(final float airAbsorption, final float occlusion, final int occlusionSegments) {
+            this.airAbsorption = airAbsorption;
+            this.occlusion = occlusion;
+            this.occlusionSegments = occlusionSegments;
+        }
+
+        public boolean hasOcclusion(final int segments) {
+            return this.occlusionSegments >= segments;
+        }
+    }
+}
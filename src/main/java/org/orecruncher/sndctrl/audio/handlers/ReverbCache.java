@@ -0,0 +1,190 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.audio.handlers;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+
+/**
+ * Caches the results of reverb ray casting so that sounds that are close to each other can share a single
+ * calculation.  Results are keyed by a quantized cell of the sound position, and are only valid for the listener
+ * block position they were calculated for.  Entries age out after a short period, and are tossed when blocks near
+ * them change.
+ */
+@OnlyIn(Dist.CLIENT)
+public final class ReverbCache {
+
+    /**
+     * Size of a source cell in blocks, as a power of 2.
+     */
+    private static final int CELL_SHIFT = 1;
+    /**
+     * Number of client ticks a result is considered valid.
+     */
+    private static final int MAX_AGE = 20;
+    /**
+     * Block changes within this range of a source cell will invalidate the cached result.
+     */
+    private static final int INVALIDATE_RANGE = 16;
+
+    private static final Long2ObjectOpenHashMap<Entry> cache = new Long2ObjectOpenHashMap<>(256);
+    private static int hits;
+    private static int misses;
+
+    private ReverbCache() {
+
+    }
+
+    public static long cellKey(@Nonnull final Vec3 pos) {
+        return cellKey(pos.x, pos.y, pos.z);
+    }
+
+    public static long cellKey(final double x, final double y, final double z) {
+        return BlockPos.asLong(
+                Mth.floor(x) >> CELL_SHIFT,
+                Mth.floor(y) >> CELL_SHIFT,
+                Mth.floor(z) >> CELL_SHIFT);
+    }
+
+    /**
+     * Obtains a cached result for the cell and listener position.
+     *
+     * @param cell     Source cell key obtained from cellKey()
+     * @param listener Block position of the listener
+     * @param tick     Current client tick
+     * @return Cached entry if present and still valid, null otherwise
+     */
+    @Nullable
+    public static Entry get(final long cell, final long listener, final long tick) {
+        synchronized (cache) {
+            final Entry entry = cache.get(cell);
+            if (entry != null && entry.listener == listener && (tick - entry.tick) < MAX_AGE) {
+                hits++;
+                return entry;
+            }
+            misses++;
+            return null;
+        }
+    }
+
+    public static void put(final long cell, @Nonnull final Entry entry) {
+        synchronized (cache) {
+            cache.put(cell, entry);
+        }
+    }
+
+    /**
+     * Removes entries that have aged out.
+     *
+     * @param tick Current client tick
+     */
+    public static void expire(final long tick) {
+        synchronized (cache) {
+            cache.values().removeIf(e -> (tick - e.tick) >= MAX_AGE);
+        }
+    }
+
+    /**
+     * Removes entries for source cells that are near any of the positions.
+     *
+     * @param positions Block positions that have changed
+     */
+    public static void invalidate(@Nonnull final Collection<BlockPos> positions) {
+        synchronized (cache) {
+            if (cache.isEmpty())
+                return;
+            cache.long2ObjectEntrySet().removeIf(e -> {
+                final long key = e.getLongKey();
+                final int x = BlockPos.getX(key) << CELL_SHIFT;
+                final int y = BlockPos.getY(key) << CELL_SHIFT;
+                final int z = BlockPos.getZ(key) << CELL_SHIFT;
+                for (final BlockPos pos : positions) {
+                    if (Math.abs(pos.getX() - x) <= INVALIDATE_RANGE
+                            && Math.abs(pos.getY() - y) <= INVALIDATE_RANGE
+                            && Math.abs(pos.getZ() - z) <= INVALIDATE_RANGE)
+                        return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Nonnull
+    public static String getDiagnosticString() {
+        synchronized (cache) {
+            final int total = hits + misses;
+            final String result = String.format("Reverb Cache: %d entries, %d%% hits", cache.size(), total == 0 ? 0 : hits * 100 / total);
+            hits = 0;
+            misses = 0;
+            return result;
+        }
+    }
+
+    /**
+     * Raw results of the reverb ray cast.  These are independent of the occlusion of the sound that generated them
+     * so they can be applied to any sound in the same cell.  Values are sums across the rays that have been cast so
+     * far; additional rays can be accumulated over several updates to refine the result.
+     */
+    public static final class Entry {
+        public final long listener;
+        public final long tick;
+        public final int rays;
+        public final float sendGain0;
+        public final float sendGain1;
+        public final float sendGain2;
+        public final float sendGain3;
+        public final float bounceRatio1;
+        public final float bounceRatio2;
+        public final float bounceRatio3;
+        public final float sharedAirspace;
+
+        public Entry(final long listener, final long tick, final int rays,
+                     final float sendGain0, final float sendGain1, final float sendGain2, final float sendGain3,
+                     final float bounceRatio1, final float bounceRatio2, final float bounceRatio3,
+                     final float sharedAirspace) {
+            this.listener = listener;
+            this.tick = tick;
+            this.rays = rays;
+            this.sendGain0 = sendGain0;
+            this.sendGain1 = sendGain1;
+            this.sendGain2 = sendGain2;
+            this.sendGain3 = sendGain3;
+            this.bounceRatio1 = bounceRatio1;
+            this.bounceRatio2 = bounceRatio2;
+            this.bounceRatio3 = bounceRatio3;
+            this.sharedAirspace = sharedAirspace;
+        }
+    }
+}
@@ -33,11 +33,14 @@ import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.common.Mod;
 import org.apache.commons.lang3.StringUtils;
 import org.lwjgl.openal.AL10;
+import org.lwjgl.openal.SOFTDeferredUpdates;
 import org.orecruncher.lib.Singleton;
 import org.orecruncher.lib.Utilities;
-import org.orecruncher.lib.collections.ObjectArray;
+import org.orecruncher.lib.events.BlockUpdateEvent;
 import org.orecruncher.lib.events.DiagnosticEvent;
 import org.orecruncher.lib.logging.IModLog;
+import org.orecruncher.lib.math.MathStuff;
+import org.orecruncher.lib.threading.BatchProcessor;
 import org.orecruncher.lib.threading.Worker;
 import org.orecruncher.sndctrl.SoundControl;
 import org.orecruncher.sndctrl.api.sound.Category;
@@ -52,10 +55,8 @@ import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 @Mod.EventBusSubscriber(modid = SoundControl.MOD_ID, value = Dist.CLIENT, bus = Mod.EventBusSubscriber.Bus.FORGE)
@@ -63,6 +64,11 @@ public final class SoundFXProcessor {
 
     private static final IModLog LOGGER = SoundControl.LOGGER.createChild(SoundFXProcessor.class);
     private static final int SOUND_PROCESS_ITERATION = 1000 / 20;   // Match MC client tick rate
+    // Portion of the iteration time the processor can use before ray budgets are scaled back
+    private static final float TARGET_LOAD = 0.5F;
+    private static final float MIN_BUDGET_SCALE = 0.25F;
+    // Fraction of the way the budget scale moves toward its corrected value each iteration
+    private static final float BUDGET_SMOOTHING = 0.25F;
 
     /**
      * Sound categories that are ignored when determining special effects.  Things like MASTER, and MUSIC.
@@ -76,15 +82,31 @@ public final class SoundFXProcessor {
 
     // Use our own thread pool avoiding the common pool.  Thread allocation is better controlled, and we won't run
     // into/cause any problems with other tasks in the common pool.
-    private static final Singleton<ExecutorService> threadPool = new Singleton<>(() ->{
+    private static final Singleton<BatchProcessor<SourceContext>> threadPool = new Singleton<>(() ->{
         int threads = Config.CLIENT.sound.backgroundThreadWorkers.get();
         if (threads == 0)
             threads = 2;
         LOGGER.info("Threads allocated to SoundControl sound processor: %d", threads);
-        return Executors.newFixedThreadPool(threads);
+        return new BatchProcessor<>("SoundControl Sound Worker", threads, SourceContext::exec, LOGGER);
     });
+    // Sources that are ready to be processed on an iteration.  Only touched by the sound processor thread.
+    private static SourceContext[] batch;
 
-    private static WorldContext worldContext = new WorldContext();
+    private static volatile WorldContext worldContext = new WorldContext();
+
+    // Scale applied to the ray budget of sounds based on how busy the processor is
+    private static volatile float budgetScale = 1F;
+    // Number of rays cast during the current iteration, and the total from the last
+    private static final AtomicInteger raysCast = new AtomicInteger();
+    private static volatile int lastRaysCast;
+    // Number of sources that had effect data uploaded during the current iteration, and the total from the last
+    private static final AtomicInteger sourceUploads = new AtomicInteger();
+    private static volatile int lastSourceUploads;
+
+    // Set if the driver can defer source updates so the uploads of an engine tick are applied as a single batch
+    private static boolean canDeferUpdates;
+    // Only touched by the sound engine thread
+    private static boolean deferring;
 
     static {
         MinecraftForge.EVENT_BUS.register(SoundFXProcessor.class);
@@ -98,6 +120,25 @@ public final class SoundFXProcessor {
         return worldContext;
     }
 
+    /**
+     * Scale factor to apply to the ray budget of a sound.  Drops below 1 when the sound processor is taking up more
+     * than its share of time.
+     *
+     * @return Budget scale factor between 0.25 and 1
+     */
+    public static float getBudgetScale() {
+        return budgetScale;
+    }
+
+    /**
+     * Records the number of rays cast for the current iteration of the sound processor.
+     *
+     * @param count Number of rays that were cast
+     */
+    public static void addRaysCast(final int count) {
+        raysCast.addAndGet(count);
+    }
+
     /**
      * Indicates if the SoundFX feature is available.
      *
@@ -110,7 +151,11 @@ public final class SoundFXProcessor {
     public static void initialize() {
         Effects.initialize();
 
+        canDeferUpdates = AL10.alIsExtensionPresent("AL_SOFT_deferred_updates");
+        LOGGER.info("Deferred source updates %s", canDeferUpdates ? "supported" : "not supported");
+
         sources = new SourceContext[SoundUtils.getMaxSounds()];
+        batch = new SourceContext[sources.length];
 
         if (soundProcessor == null) {
             soundProcessor = new Worker(
@@ -143,6 +188,8 @@ public final class SoundFXProcessor {
                 Arrays.fill(sources, null);
                 sources = null;
             }
+            batch = null;
+            ReverbCache.clear();
             Effects.deinitialize();
         }
     }
@@ -177,6 +224,27 @@ public final class SoundFXProcessor {
         });
     }
 
+    /**
+     * Estimates the direct path gain a sound will get once it is playing, so it can be compared with the direct gain
+     * of the sounds that are.  Uses the occlusion already traced this tick for the block the sound comes from, if
+     * there is one.  Must be called from the client thread.
+     *
+     * @param sound Sound that is about to play
+     * @return Estimated direct gain; 1 if the sound will not be processed
+     */
+    public static float estimateDirectGain(@Nonnull final SoundInstance sound) {
+        if (!isAvailable() || sound.isRelative())
+            return 1F;
+
+        final Optional<ISoundCategory> cat = Category.getCategory(sound);
+        if (cat.isPresent() && IGNORE_CATEGORIES.contains(cat.get()))
+            return 1F;
+
+        final WorldContext ctx = worldContext;
+        final PathCache.Entry path = ctx.pathCache.peek(PathCache.blockKey(sound.getX(), sound.getY(), sound.getZ()));
+        return SoundFXUtils.estimateDirectGain(path == null ? 0F : path.occlusion, ctx.auralDampening);
+    }
+
     /**
      * Callback hook from an injection.  Will be invoked by the sound processing thread when checking status which
      * essentially is a "tick".
@@ -185,8 +253,30 @@ public final class SoundFXProcessor {
      */
     public static void tick(@Nonnull final Channel source) {
         final SourceContext ctx = ((IMixinSoundContext)source).getData();
-        if (ctx != null)
-            ctx.tick(source.source);
+        if (ctx != null && ctx.tick(source.source))
+            sourceUploads.incrementAndGet();
+    }
+
+    /**
+     * Callback hook from an injection.  Invoked on the sound engine thread before the channels are ticked.  If the
+     * driver supports it, source updates are deferred so that the effect uploads for the tick are processed in one go.
+     */
+    public static void beginTick() {
+        if (isAvailable() && canDeferUpdates) {
+            SOFTDeferredUpdates.alDeferUpdatesSOFT();
+            deferring = true;
+        }
+    }
+
+    /**
+     * Callback hook from an injection.  Invoked on the sound engine thread after the channels are ticked to apply
+     * the deferred source updates.
+     */
+    public static void endTick() {
+        if (deferring) {
+            deferring = false;
+            SOFTDeferredUpdates.alProcessUpdatesSOFT();
+        }
     }
 
     /**
@@ -200,6 +290,22 @@ public final class SoundFXProcessor {
             sources[source.source - 1] = null;
     }
 
+    /**
+     * Visits the contexts of the sounds that currently have effects applied.  The contexts are updated by the sound
+     * threads so the values read are a best effort snapshot.
+     *
+     * @param consumer Consumer to receive each source context
+     */
+    public static void forEachSource(@Nonnull final Consumer<SourceContext> consumer) {
+        final SourceContext[] current = sources;
+        if (current == null)
+            return;
+        for (final SourceContext ctx : current) {
+            if (ctx != null)
+                consumer.accept(ctx);
+        }
+    }
+
     /**
      * Injected into SoundSource and will be invoked when a non-streaming sound data stream is attached to the
      * SoundSource.  Take the opportunity to convert the audio stream into mono format if needed.
@@ -238,40 +344,73 @@ public final class SoundFXProcessor {
         }
     }
 
+    /**
+     * Block changes can alter how sound reverberates in the area.  Toss cached results that are affected.
+     *
+     * @param event Event trigger in question.
+     */
+    @SubscribeEvent
+    public static void onBlockUpdate(@Nonnull final BlockUpdateEvent event) {
+        if (isAvailable())
+            ReverbCache.invalidate(event.getPositions());
+    }
+
     /**
      * Separate thread for evaluating the environment for the sound play.  These routines can get a little heavy
      * so offloading to a separate thread to keep it out of either the client tick or sound engine makes sense.
      */
     private static void processSounds() {
         try {
-            final ExecutorService pool = threadPool.get();
+            final BatchProcessor<SourceContext> pool = threadPool.get();
             assert pool != null;
-            final ObjectArray<Future<?>> tasks = new ObjectArray<>(256);
+            ReverbCache.expire(worldContext.tick);
+            updateBudget();
+
+            final SourceContext[] work = batch;
+            int count = 0;
             for (int i = 0; i < SoundUtils.getMaxSounds(); i++) {
                 final SourceContext ctx = sources[i];
                 if (ctx != null && ctx.shouldExecute()) {
-                    tasks.add(pool.submit(ctx));
+                    work[count++] = ctx;
                 }
             }
 
-            if (tasks.size() > 0)
-                tasks.forEach(t -> {
-                    try {
-                        t.get();
-                    } catch (InterruptedException | ExecutionException ignored) {
-                    }
-                });
+            pool.process(work, count);
+            Arrays.fill(work, 0, count, null);
         } catch (@Nonnull final Throwable t) {
             LOGGER.error(t, "Error in SoundContext ForkJoinPool");
         }
     }
 
+    private static void updateBudget() {
+        lastRaysCast = raysCast.getAndSet(0);
+        lastSourceUploads = sourceUploads.getAndSet(0);
+        final double elapsed = soundProcessor.getAverageTime();
+        if (Double.isNaN(elapsed) || elapsed <= 0) {
+            budgetScale = 1F;
+        } else {
+            // The elapsed time was measured with the current scale in effect, and the work grows with the scale, so
+            // the correction is applied to the current scale rather than replacing it.  Moving only part of the way
+            // each iteration keeps the scale from bouncing as the averaged time catches up.
+            final float target = soundProcessor.getFrequency() * TARGET_LOAD;
+            final float desired = budgetScale * (float) (target / elapsed);
+            budgetScale = MathStuff.clamp(budgetScale + (desired - budgetScale) * BUDGET_SMOOTHING, MIN_BUDGET_SCALE, 1F);
+        }
+    }
+
     @SubscribeEvent(priority = EventPriority.HIGH)
     public static void onGatherText(@Nonnull final DiagnosticEvent event) {
         if (isAvailable() && soundProcessor != null) {
             final String msg = soundProcessor.getDiagnosticString();
             if (!StringUtils.isEmpty(msg))
                 event.getLeft().add(ChatFormatting.GREEN + msg);
+            final BatchProcessor<SourceContext> pool = threadPool.get();
+            if (pool != null)
+                event.getLeft().add(ChatFormatting.GREEN + pool.getDiagnosticString());
+            event.getLeft().add(ChatFormatting.GREEN + ReverbCache.getDiagnosticString());
+            event.getLeft().add(ChatFormatting.GREEN + PathCache.getDiagnosticString());
+            event.getLeft().add(ChatFormatting.GREEN + String.format("Reverb Rays: %d/tick (budget %d%%)", lastRaysCast, (int) (budgetScale * 100)));
+            event.getLeft().add(ChatFormatting.GREEN + String.format("Source Uploads: %d/tick", lastSourceUploads));
         }
     }
 
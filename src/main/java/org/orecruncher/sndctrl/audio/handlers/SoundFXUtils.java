@@ -25,36 +25,36 @@
  * - Added effect of rain on sound dampening
  * - Listener head in various fluids support
  * - Precache frequently used world information
+ * - Trace against a block snapshot rather than the live client world
+ * - Level of detail scaling of ray budgets
+ * - Allocation free ray casting loops
  */
 
 package org.orecruncher.sndctrl.audio.handlers;
 
+import net.minecraft.client.resources.sounds.SoundInstance;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.core.Vec3i;
+import net.minecraft.util.Mth;
 import net.minecraft.world.level.ClipContext;
-import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.phys.BlockHitResult;
-import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import org.orecruncher.lib.WorldUtils;
 import org.orecruncher.lib.math.BlockRayTrace;
 import org.orecruncher.lib.math.MathStuff;
-import org.orecruncher.lib.math.RayTraceIterator;
+import org.orecruncher.lib.world.WorldSnapshot;
 import org.orecruncher.mobeffects.library.Constants;
+import org.orecruncher.sndctrl.api.sound.Category;
+import org.orecruncher.sndctrl.api.sound.ISoundCategory;
 import org.orecruncher.sndctrl.audio.SoundUtils;
-import org.orecruncher.sndctrl.audio.handlers.effects.LowPassData;
-import org.orecruncher.sndctrl.audio.handlers.effects.SourcePropertyFloat;
 import org.orecruncher.sndctrl.config.Config;
 import org.orecruncher.sndctrl.library.AudioEffectLibrary;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Iterator;
 
 @OnlyIn(Dist.CLIENT)
 public final class SoundFXUtils {
@@ -63,10 +63,22 @@ public final class SoundFXUtils {
      * Maximum number of segments to check when ray tracing for occlusion.
      */
     private static final int OCCLUSION_SEGMENTS = 5;
+    /**
+     * Fewest number of segments to check when ray tracing for occlusion.
+     */
+    private static final int MIN_OCCLUSION_SEGMENTS = 3;
+    /**
+     * Number of rays to project when doing reverb calculations, as a power of 2.
+     */
+    private static final int REVERB_RAY_BITS = 5;
     /**
      * Number of rays to project when doing reverb calculations.
      */
-    private static final int REVERB_RAYS = 32;
+    private static final int REVERB_RAYS = 1 << REVERB_RAY_BITS;
+    /**
+     * Fewest number of reverb rays to project for a sound in a single update.
+     */
+    private static final int MIN_REVERB_RAYS = 4;
     /**
      * Number of bounces a sound wave will make when projecting.
      */
@@ -100,18 +112,13 @@ public final class SoundFXUtils {
      */
     private static final Vec3[] REVERB_RAY_PROJECTED = new Vec3[REVERB_RAYS];
     /**
-     * Precaluclated direction surface normals as Vec3d instead of Vec3i
+     * Order in which the reverb rays are cast.  Any leading run of the order is spread around the sphere so that a
+     * partial cast still samples every direction.
      */
-    private static final Vec3[] SURFACE_DIRECTION_NORMALS = new Vec3[Direction.values().length];
+    private static final int[] REVERB_RAY_ORDER = new int[REVERB_RAYS];
 
     static {
 
-        // Would have been cool to have a direction vec as a 3d as well as 3i.
-        for (final Direction d : Direction.values()) {
-            Vec3i v = d.getNormal();
-            SURFACE_DIRECTION_NORMALS[d.ordinal()] = new Vec3(v.getX(), v.getY(), v.getZ());
-        }
-
         // Pre-calculate the known vectors that will be projected off a sound source when casting about to establish
         // reverb effects.
         for (int i = 0; i < REVERB_RAYS; i++) {
@@ -125,12 +132,22 @@ public final class SoundFXUtils {
             ).normalize();
 
             REVERB_RAY_PROJECTED[i] = REVERB_RAY_NORMALS[i].scale(MAX_REVERB_DISTANCE);
+            REVERB_RAY_ORDER[i] = Integer.reverse(i) >>> (Integer.SIZE - REVERB_RAY_BITS);
         }
 
     }
 
     private final SourceContext source;
 
+    // Working state for the ray casts.  An instance is only ever processed by one thread at a time so these can be
+    // reused between calculations rather than being allocated each time.
+    private final BlockRayTrace reverbTrace = new BlockRayTrace(WorldSnapshot.EMPTY, ClipContext.Block.COLLIDER, ClipContext.Fluid.SOURCE_ONLY);
+    private final BlockRayTrace occlusionTrace = new BlockRayTrace(WorldSnapshot.EMPTY, ClipContext.Block.VISUAL, ClipContext.Fluid.SOURCE_ONLY);
+    private final BlockRayTrace.Hit rayHit = new BlockRayTrace.Hit();
+    private final BlockRayTrace.Hit finalRayHit = new BlockRayTrace.Hit();
+    private final BlockPos.MutableBlockPos weatherPos = new BlockPos.MutableBlockPos();
+    private final float[] bounceRatio = new float[REVERB_RAY_BOUNCES];
+
     public SoundFXUtils(@Nonnull final SourceContext source) {
         this.source = source;
     }
@@ -154,11 +171,49 @@ public final class SoundFXUtils {
         }
 
         // Need to offset sound toward player if it is in a solid block
-        final Vec3 soundPos = offsetPositionIfSolid(ctx.world, this.source.getPosition(), ctx.playerEyePosition);
+        final Vec3 position = this.source.getPosition();
+        final Vec3 eye = ctx.playerEyePosition;
+        double soundX = position.x;
+        double soundY = position.y;
+        double soundZ = position.z;
+        if (!WorldUtils.isAirBlock(ctx.snapshot.getBlockState(Mth.floor(soundX), Mth.floor(soundY), Mth.floor(soundZ)))) {
+            final double dx = eye.x - soundX;
+            final double dy = eye.y - soundY;
+            final double dz = eye.z - soundZ;
+            final double len = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (len >= 1.0E-4D) {
+                final double scale = 0.876D / len;
+                soundX += dx * scale;
+                soundY += dy * scale;
+                soundZ += dz * scale;
+            }
+        }
+
+        this.reverbTrace.setWorld(ctx.snapshot);
+        this.occlusionTrace.setWorld(ctx.snapshot);
+
+        // Scale the work done for the sound by how much it matters
+        final float lod = computeLevelOfDetail(ctx);
+        final int rayBudget = MathStuff.clamp(Math.round(REVERB_RAYS * lod), MIN_REVERB_RAYS, REVERB_RAYS);
+        final int occlusionSegments = MathStuff.clamp(Math.round(OCCLUSION_SEGMENTS * lod), MIN_OCCLUSION_SEGMENTS, OCCLUSION_SEGMENTS);
 
         final float absorptionCoeff = Effects.GLOBAL_BLOCK_ABSORPTION * 3.0F;
-        final float airAbsorptionFactor = calculateWeatherAbsorption(ctx, soundPos, ctx.playerEyePosition);
-        final float occlusionAccumulation = calculateOcclusion(ctx, soundPos, ctx.playerEyePosition);
+
+        // Sounds that come from the same block share the trace to the listener
+        final long pathKey = PathCache.blockKey(soundX, soundY, soundZ);
+        final PathCache.Entry path = ctx.pathCache.get(pathKey);
+        final float airAbsorptionFactor = path != null ? path.airAbsorption : calculateWeatherAbsorption(ctx, soundX, soundY, soundZ);
+        final float occlusionAccumulation;
+        if (!doOcclusion()) {
+            occlusionAccumulation = 0F;
+            if (path == null)
+                ctx.pathCache.put(pathKey, new PathCache.Entry(airAbsorptionFactor, 0F, 0));
+        } else if (path != null && path.hasOcclusion(occlusionSegments)) {
+            occlusionAccumulation = path.occlusion;
+        } else {
+            occlusionAccumulation = calculateOcclusion(ctx, soundX, soundY, soundZ, occlusionSegments);
+            ctx.pathCache.put(pathKey, new PathCache.Entry(airAbsorptionFactor, occlusionAccumulation, occlusionSegments));
+        }
         final float sendCoeff = -occlusionAccumulation * absorptionCoeff;
 
         float directCutoff = (float) MathStuff.exp(sendCoeff);
@@ -166,71 +221,199 @@ public final class SoundFXUtils {
         // Handle any dampening effects from the player - like head in water
         directCutoff *= 1F - ctx.auralDampening;
 
-        // Calculate reverb parameters for this sound
-        float sendGain0 = 0F;
-        float sendGain1 = 0F;
-        float sendGain2 = 0F;
-        float sendGain3 = 0F;
+        // Reverb parameters for this sound.  Sounds that are near each other will share the results of the ray cast.
+        // If the shared result has not seen all the rays, cast more according to budget to refine it.
+        final long cell = ReverbCache.cellKey(soundX, soundY, soundZ);
+        final long listener = ctx.playerEyePos.asLong();
+        ReverbCache.Entry reverb = ReverbCache.get(cell, listener, ctx.tick);
+        if (reverb == null || reverb.rays < REVERB_RAYS) {
+            reverb = castReverbRays(ctx, soundX, soundY, soundZ, listener, reverb, rayBudget);
+            ReverbCache.put(cell, reverb);
+        }
+
+        // Scale the sums up as if all the rays had been cast
+        final float rayScale = (float) REVERB_RAYS / reverb.rays;
+
+        float sendGain0 = reverb.sendGain0 * rayScale;
+        float sendGain1 = reverb.sendGain1 * rayScale;
+        float sendGain2 = reverb.sendGain2 * rayScale;
+        float sendGain3 = reverb.sendGain3 * rayScale;
 
         float sendCutoff0;
         float sendCutoff1;
         float sendCutoff2;
         float sendCutoff3;
 
-        // Shoot rays around sound
-        final float[] bounceRatio = new float[REVERB_RAY_BOUNCES];
+        final float sharedAirspace = reverb.sharedAirspace * rayScale * RECIP_TOTAL_RAYS * 64F;
 
-        float sharedAirspace = 0F;
+        final float sharedAirspaceWeight0 = MathStuff.clamp1(sharedAirspace / 20.0F);
+        final float sharedAirspaceWeight1 = MathStuff.clamp1(sharedAirspace / 15.0F);
+        final float sharedAirspaceWeight2 = MathStuff.clamp1(sharedAirspace / 10.0F);
+        final float sharedAirspaceWeight3 = MathStuff.clamp1(sharedAirspace / 10.0F);
 
-        final BlockRayTrace traceContext = new BlockRayTrace(ctx.world, ClipContext.Block.COLLIDER, ClipContext.Fluid.SOURCE_ONLY);
+        final float exp1 = (float) MathStuff.exp(sendCoeff);
+        final float exp2 = (float) MathStuff.exp(sendCoeff * 1.5F);
+        sendCutoff0 = exp1 * (1.0F - sharedAirspaceWeight0) + sharedAirspaceWeight0;
+        sendCutoff1 = exp1 * (1.0F - sharedAirspaceWeight1) + sharedAirspaceWeight1;
+        sendCutoff2 = exp2 * (1.0F - sharedAirspaceWeight2) + sharedAirspaceWeight2;
+        sendCutoff3 = exp2 * (1.0F - sharedAirspaceWeight3) + sharedAirspaceWeight3;
 
-        for (int i = 0; i < REVERB_RAYS; i++) {
+        final float averageSharedAirspace = (sharedAirspaceWeight0 + sharedAirspaceWeight1 + sharedAirspaceWeight2
+                + sharedAirspaceWeight3) * 0.25F;
+        directCutoff = Math.max((float) Math.sqrt(averageSharedAirspace) * 0.2F, directCutoff);
+
+        float directGain = (float) MathStuff.pow(directCutoff, 0.1);
+
+        sendGain1 *= reverb.bounceRatio1 / reverb.rays;
+        sendGain2 *= (float) MathStuff.pow(reverb.bounceRatio2 / reverb.rays, 3.0);
+        sendGain3 *= (float) MathStuff.pow(reverb.bounceRatio3 / reverb.rays, 4.0);
 
-            Vec3 origin = soundPos;
-            Vec3 target = origin.add(REVERB_RAY_PROJECTED[i]);
+        sendGain0 = MathStuff.clamp1(sendGain0);
+        sendGain1 = MathStuff.clamp1(sendGain1);
+        sendGain2 = MathStuff.clamp1(sendGain2 * 1.05F - 0.05F);
+        sendGain3 = MathStuff.clamp1(sendGain3 * 1.05F - 0.05F);
 
-            BlockHitResult rayHit = traceContext.trace(origin, target);
+        sendGain0 *= (float) MathStuff.pow(sendCutoff0, 0.1);
+        sendGain1 *= (float) MathStuff.pow(sendCutoff1, 0.1);
+        sendGain2 *= (float) MathStuff.pow(sendCutoff2, 0.1);
+        sendGain3 *= (float) MathStuff.pow(sendCutoff3, 0.1);
 
-            if (isMiss(rayHit))
+        if (ctx.player.isInWater()) {
+            sendCutoff0 *= 0.4F;
+            sendCutoff1 *= 0.4F;
+            sendCutoff2 *= 0.4F;
+            sendCutoff3 *= 0.4F;
+        }
+
+        final EffectParameters params = this.source.beginUpdate();
+        params.process = true;
+        params.sendGain0 = sendGain0;
+        params.sendGain1 = sendGain1;
+        params.sendGain2 = sendGain2;
+        params.sendGain3 = sendGain3;
+        params.sendCutoff0 = sendCutoff0;
+        params.sendCutoff1 = sendCutoff1;
+        params.sendCutoff2 = sendCutoff2;
+        params.sendCutoff3 = sendCutoff3;
+        params.directGain = directGain;
+        params.directCutoff = directCutoff;
+        params.airAbsorptionFactor = airAbsorptionFactor;
+        this.source.publishUpdate();
+    }
+
+    /**
+     * Casts rays about the sound position, bouncing them around the surrounding blocks, to gather the raw reverb
+     * parameters for the location.  Casting picks up where a prior result left off, adding up to budget rays to it.
+     * The vector math is done with primitives so the only allocation is the resulting cache entry.
+     */
+    @Nonnull
+    private ReverbCache.Entry castReverbRays(@Nonnull final WorldContext ctx, final double soundX, final double soundY, final double soundZ, final long listener, @Nullable final ReverbCache.Entry prior, final int budget) {
+
+        final int first = prior == null ? 0 : prior.rays;
+        final int last = Math.min(first + budget, REVERB_RAYS);
+
+        float sendGain0 = prior == null ? 0F : prior.sendGain0;
+        float sendGain1 = prior == null ? 0F : prior.sendGain1;
+        float sendGain2 = prior == null ? 0F : prior.sendGain2;
+        float sendGain3 = prior == null ? 0F : prior.sendGain3;
+
+        // Shoot rays around sound
+        final float[] bounceRatio = this.bounceRatio;
+        bounceRatio[0] = 0F;
+        bounceRatio[1] = prior == null ? 0F : prior.bounceRatio1;
+        bounceRatio[2] = prior == null ? 0F : prior.bounceRatio2;
+        bounceRatio[3] = prior == null ? 0F : prior.bounceRatio3;
+
+        float sharedAirspace = prior == null ? 0F : prior.sharedAirspace;
+        int traces = 0;
+
+        final WorldSnapshot snapshot = ctx.snapshot;
+        final BlockRayTrace traceContext = this.reverbTrace;
+        final BlockRayTrace.Hit rayHit = this.rayHit;
+        final BlockRayTrace.Hit finalRayHit = this.finalRayHit;
+        final double eyeX = ctx.playerEyePosition.x;
+        final double eyeY = ctx.playerEyePosition.y;
+        final double eyeZ = ctx.playerEyePosition.z;
+
+        for (int k = first; k < last; k++) {
+
+            final int i = REVERB_RAY_ORDER[k];
+            final Vec3 projected = REVERB_RAY_PROJECTED[i];
+
+            traces++;
+            if (!traceContext.trace(soundX, soundY, soundZ, soundX + projected.x, soundY + projected.y, soundZ + projected.z, rayHit))
                 continue;
 
             // Additional bounces
-            BlockPos lastHitBlock = rayHit.getBlockPos();
-            Vec3 lastHitPos = rayHit.getLocation();
-            Vec3 lastHitNormal = surfaceNormal(rayHit.getDirection());
-            Vec3 lastRayDir = REVERB_RAY_NORMALS[i];
-
-            double totalRayDistance = origin.distanceTo(rayHit.getLocation());
+            int lastHitBlockX = rayHit.pos.getX();
+            int lastHitBlockY = rayHit.pos.getY();
+            int lastHitBlockZ = rayHit.pos.getZ();
+            double lastHitX = rayHit.x;
+            double lastHitY = rayHit.y;
+            double lastHitZ = rayHit.z;
+            Direction lastHitNormal = rayHit.face;
+            double lastRayDirX = REVERB_RAY_NORMALS[i].x;
+            double lastRayDirY = REVERB_RAY_NORMALS[i].y;
+            double lastRayDirZ = REVERB_RAY_NORMALS[i].z;
+
+            double totalRayDistance = distance(soundX, soundY, soundZ, lastHitX, lastHitY, lastHitZ);
 
             // Secondary ray bounces
             for (int j = 0; j < REVERB_RAY_BOUNCES; j++) {
 
-                final float blockReflectivity = AudioEffectLibrary.getReflectivity(ctx.world.getBlockState(lastHitBlock));
+                final float blockReflectivity = AudioEffectLibrary.getReflectivity(snapshot.getBlockState(lastHitBlockX, lastHitBlockY, lastHitBlockZ));
                 final float energyTowardsPlayer = blockReflectivity * ENERGY_COEFF + ENERGY_CONST;
 
-                final Vec3 newRayDir = MathStuff.reflection(lastRayDir, lastHitNormal);
-                origin = MathStuff.addScaled(lastHitPos, newRayDir, 0.01F);
-                target = MathStuff.addScaled(origin, newRayDir, MAX_REVERB_DISTANCE);
-
-                rayHit = traceContext.trace(origin, target);
-
-                if (isMiss(rayHit)) {
-                    totalRayDistance += lastHitPos.distanceTo(ctx.playerEyePosition);
+                // Reflect the ray off the surface that was hit
+                assert lastHitNormal != null;
+                final int normalX = lastHitNormal.getStepX();
+                final int normalY = lastHitNormal.getStepY();
+                final int normalZ = lastHitNormal.getStepZ();
+                final double dot2 = (lastRayDirX * normalX + lastRayDirY * normalY + lastRayDirZ * normalZ) * 2;
+                final double newRayDirX = lastRayDirX - dot2 * normalX;
+                final double newRayDirY = lastRayDirY - dot2 * normalY;
+                final double newRayDirZ = lastRayDirZ - dot2 * normalZ;
+
+                final double originX = lastHitX + newRayDirX * 0.01F;
+                final double originY = lastHitY + newRayDirY * 0.01F;
+                final double originZ = lastHitZ + newRayDirZ * 0.01F;
+
+                traces++;
+                final boolean isHit = traceContext.trace(
+                        originX, originY, originZ,
+                        originX + newRayDirX * MAX_REVERB_DISTANCE,
+                        originY + newRayDirY * MAX_REVERB_DISTANCE,
+                        originZ + newRayDirZ * MAX_REVERB_DISTANCE,
+                        rayHit);
+
+                if (!isHit) {
+                    totalRayDistance += distance(lastHitX, lastHitY, lastHitZ, eyeX, eyeY, eyeZ);
                 } else {
 
                     bounceRatio[j] += blockReflectivity;
-                    totalRayDistance += lastHitPos.distanceTo(rayHit.getLocation());
-
-                    lastHitPos = rayHit.getLocation();
-                    lastHitNormal = surfaceNormal(rayHit.getDirection());
-                    lastRayDir = newRayDir;
-                    lastHitBlock = rayHit.getBlockPos();
+                    totalRayDistance += distance(lastHitX, lastHitY, lastHitZ, rayHit.x, rayHit.y, rayHit.z);
+
+                    lastHitX = rayHit.x;
+                    lastHitY = rayHit.y;
+                    lastHitZ = rayHit.z;
+                    lastHitNormal = rayHit.face;
+                    lastRayDirX = newRayDirX;
+                    lastRayDirY = newRayDirY;
+                    lastRayDirZ = newRayDirZ;
+                    lastHitBlockX = rayHit.pos.getX();
+                    lastHitBlockY = rayHit.pos.getY();
+                    lastHitBlockZ = rayHit.pos.getZ();
 
                     // Cast a ray back at the player.  If it is a miss there is a path back from the reflection
                     // point to the player meaning they share the same airspace.
-                    final Vec3 finalRayStart = MathStuff.addScaled(lastHitPos, lastHitNormal, 0.01F);
-                    final BlockHitResult finalRayHit = traceContext.trace(finalRayStart, ctx.playerEyePosition);
-                    if (isMiss(finalRayHit)) {
+                    assert lastHitNormal != null;
+                    traces++;
+                    if (!traceContext.trace(
+                            lastHitX + lastHitNormal.getStepX() * 0.01F,
+                            lastHitY + lastHitNormal.getStepY() * 0.01F,
+                            lastHitZ + lastHitNormal.getStepZ() * 0.01F,
+                            eyeX, eyeY, eyeZ,
+                            finalRayHit)) {
                         sharedAirspace += 1.0F;
                     }
                 }
@@ -249,154 +432,159 @@ public final class SoundFXUtils {
                 sendGain3 += cross3 * energyTowardsPlayer * 12.8F;
 
                 // Nowhere to bounce off of, stop bouncing!
-                if (isMiss(rayHit)) {
+                if (!isHit) {
                     break;
                 }
             }
         }
 
-        bounceRatio[0] = bounceRatio[0] / REVERB_RAYS;
-        bounceRatio[1] = bounceRatio[1] / REVERB_RAYS;
-        bounceRatio[2] = bounceRatio[2] / REVERB_RAYS;
-        bounceRatio[3] = bounceRatio[3] / REVERB_RAYS;
-
-        sharedAirspace *= RECIP_TOTAL_RAYS * 64F;
-
-        final float sharedAirspaceWeight0 = MathStuff.clamp1(sharedAirspace / 20.0F);
-        final float sharedAirspaceWeight1 = MathStuff.clamp1(sharedAirspace / 15.0F);
-        final float sharedAirspaceWeight2 = MathStuff.clamp1(sharedAirspace / 10.0F);
-        final float sharedAirspaceWeight3 = MathStuff.clamp1(sharedAirspace / 10.0F);
-
-        final float exp1 = (float) MathStuff.exp(sendCoeff);
-        final float exp2 = (float) MathStuff.exp(sendCoeff * 1.5F);
-        sendCutoff0 = exp1 * (1.0F - sharedAirspaceWeight0) + sharedAirspaceWeight0;
-        sendCutoff1 = exp1 * (1.0F - sharedAirspaceWeight1) + sharedAirspaceWeight1;
-        sendCutoff2 = exp2 * (1.0F - sharedAirspaceWeight2) + sharedAirspaceWeight2;
-        sendCutoff3 = exp2 * (1.0F - sharedAirspaceWeight3) + sharedAirspaceWeight3;
-
-        final float averageSharedAirspace = (sharedAirspaceWeight0 + sharedAirspaceWeight1 + sharedAirspaceWeight2
-                + sharedAirspaceWeight3) * 0.25F;
-        directCutoff = Math.max((float) Math.sqrt(averageSharedAirspace) * 0.2F, directCutoff);
-
-        float directGain = (float) MathStuff.pow(directCutoff, 0.1);
-
-        sendGain1 *= bounceRatio[1];
-        sendGain2 *= (float) MathStuff.pow(bounceRatio[2], 3.0);
-        sendGain3 *= (float) MathStuff.pow(bounceRatio[3], 4.0);
-
-        sendGain0 = MathStuff.clamp1(sendGain0);
-        sendGain1 = MathStuff.clamp1(sendGain1);
-        sendGain2 = MathStuff.clamp1(sendGain2 * 1.05F - 0.05F);
-        sendGain3 = MathStuff.clamp1(sendGain3 * 1.05F - 0.05F);
-
-        sendGain0 *= (float) MathStuff.pow(sendCutoff0, 0.1);
-        sendGain1 *= (float) MathStuff.pow(sendCutoff1, 0.1);
-        sendGain2 *= (float) MathStuff.pow(sendCutoff2, 0.1);
-        sendGain3 *= (float) MathStuff.pow(sendCutoff3, 0.1);
+        SoundFXProcessor.addRaysCast(traces);
+
+        return new ReverbCache.Entry(
+                listener,
+                prior == null ? ctx.tick : prior.tick,
+                last,
+                sendGain0,
+                sendGain1,
+                sendGain2,
+                sendGain3,
+                bounceRatio[1],
+                bounceRatio[2],
+                bounceRatio[3],
+                sharedAirspace);
+    }
 
-        if (ctx.player.isInWater()) {
-            sendCutoff0 *= 0.4F;
-            sendCutoff1 *= 0.4F;
-            sendCutoff2 *= 0.4F;
-            sendCutoff3 *= 0.4F;
+    /**
+     * Determines how much effort to put into the sound.  Nearby, loud sounds get full detail while distant, quiet,
+     * background sounds get less.  Detail is scaled back further when the sound processor is running long.
+     *
+     * @return Level of detail between 0 and 1
+     */
+    private float computeLevelOfDetail(@Nonnull final WorldContext ctx) {
+        final SoundInstance sound = this.source.getSound();
+        assert sound != null;
+
+        float lod = 1F;
+        if (!sound.isRelative() && sound.getAttenuation() != SoundInstance.Attenuation.NONE) {
+            final float range = Math.max(sound.getSound().getAttenuationDistance(), 1);
+            final float distance = (float) ctx.playerEyePosition.distanceTo(this.source.getPosition());
+            lod = 1F - MathStuff.clamp1(distance / range) * 0.75F;
         }
 
-        final LowPassData lp0 = this.source.getLowPass0();
-        final LowPassData lp1 = this.source.getLowPass1();
-        final LowPassData lp2 = this.source.getLowPass2();
-        final LowPassData lp3 = this.source.getLowPass3();
-        final LowPassData direct = this.source.getDirect();
-        final SourcePropertyFloat prop = this.source.getAirAbsorb();
-
-        synchronized (this.source.sync()) {
-            lp0.gain = sendGain0;
-            lp0.gainHF = sendCutoff0;
-            lp0.setProcess(true);
-
-            lp1.gain = sendGain1;
-            lp1.gainHF = sendCutoff1;
-            lp1.setProcess(true);
-
-            lp2.gain = sendGain2;
-            lp2.gainHF = sendCutoff2;
-            lp2.setProcess(true);
-
-            lp3.gain = sendGain3;
-            lp3.gainHF = sendCutoff3;
-            lp3.setProcess(true);
+        lod *= MathStuff.clamp(sound.getVolume(), 0.25F, 1F);
+        lod *= categoryWeight(this.source.getCategory());
+        lod *= SoundFXProcessor.getBudgetScale();
+        return lod;
+    }
 
-            direct.gain = directGain;
-            direct.gainHF = directCutoff;
-            direct.setProcess(true);
+    /**
+     * Estimates the gain of the direct path for a sound from its occlusion alone.  The full calculation can raise it
+     * for sound that reaches the listener through shared airspace, which is not known until reverb rays are cast.
+     *
+     * @param occlusion      Occlusion accumulated along the path to the listener
+     * @param auralDampening Dampening of the listener, like having their head in water
+     * @return Estimated direct gain
+     */
+    static float estimateDirectGain(final float occlusion, final float auralDampening) {
+        final float directCutoff = (float) MathStuff.exp(-occlusion * Effects.GLOBAL_BLOCK_ABSORPTION * 3.0F) * (1F - auralDampening);
+        return (float) MathStuff.pow(directCutoff, 0.1);
+    }
 
-            prop.setValue(airAbsorptionFactor);
-            prop.setProcess(true);
-        }
+    private static float categoryWeight(@Nonnull final ISoundCategory category) {
+        // Background sounds do not need the detail of the action around the player
+        if (category == Category.AMBIENT || category == Category.WEATHER)
+            return 0.5F;
+        if (category == Constants.FOOTSTEPS)
+            return 0.75F;
+        return 1F;
     }
 
     private void clearSettings() {
-        synchronized (this.source.sync()) {
-            source.getLowPass0().setProcess(false);
-            source.getLowPass1().setProcess(false);
-            source.getLowPass2().setProcess(false);
-            source.getLowPass3().setProcess(false);
-            source.getDirect().setProcess(false);
-            source.getAirAbsorb().setProcess(false);
-        }
+        final EffectParameters params = this.source.beginUpdate();
+        params.process = false;
+        params.directGain = 1F;
+        this.source.publishUpdate();
+    }
+
+    private boolean doOcclusion() {
+        // Occlusion has to be enabled, and the category has to be eligible
+        return Config.CLIENT.sound.enableOcclusionCalcs.get() && this.source.getCategory().doOcclusion();
     }
 
-    private float calculateOcclusion(@Nonnull final WorldContext ctx, @Nonnull final Vec3 origin, @Nonnull final Vec3 target) {
+    private float calculateOcclusion(@Nonnull final WorldContext ctx, final double originX, final double originY, final double originZ, final int segments) {
 
         assert ctx.world != null;
         assert ctx.player != null;
 
-        // If occlusion is not enabled, short cut
-        if (!Config.CLIENT.sound.enableOcclusionCalcs.get())
+        if (!doOcclusion())
             return 0F;
 
-        // See if the category is eligible for occlusion
-        if (!this.source.getCategory().doOcclusion())
-            return 0F;
+        final WorldSnapshot snapshot = ctx.snapshot;
+        final BlockRayTrace traceContext = this.occlusionTrace;
+        final BlockRayTrace.Hit hit = this.rayHit;
+
+        final double targetX = ctx.playerEyePosition.x;
+        final double targetY = ctx.playerEyePosition.y;
+        final double targetZ = ctx.playerEyePosition.z;
+        final int targetBlockX = Mth.floor(targetX);
+        final int targetBlockY = Mth.floor(targetY);
+        final int targetBlockZ = Mth.floor(targetZ);
+
+        // Each segment picks up one block past the last hit, stepping along the normal of the line.  Stops when the
+        // trace misses or reaches the target block.
+        final double dx = targetX - originX;
+        final double dy = targetY - originY;
+        final double dz = targetZ - originZ;
+        final double len = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        final double normalX = len < 1.0E-4D ? 0 : dx / len;
+        final double normalY = len < 1.0E-4D ? 0 : dy / len;
+        final double normalZ = len < 1.0E-4D ? 0 : dz / len;
 
         float factor = 0F;
-
-        if (Config.CLIENT.sound.enableOcclusionCalcs.get()) {
-            Vec3 lastHit = origin;
-            BlockState lastState = ctx.world.getBlockState(new BlockPos(lastHit.x(), lastHit.y(), lastHit.z()));
-            final BlockRayTrace traceContext = new BlockRayTrace(ctx.world, origin, target, ClipContext.Block.VISUAL, ClipContext.Fluid.SOURCE_ONLY);
-            final Iterator<BlockHitResult> itr = new RayTraceIterator(traceContext);
-            for (int i = 0; i < OCCLUSION_SEGMENTS; i++) {
-                if (itr.hasNext()) {
-                    final BlockHitResult result = itr.next();
-                    final float occlusion = AudioEffectLibrary.getOcclusion(lastState);
-                    final double distance = lastHit.distanceTo(result.getLocation());
-                    // Occlusion is scaled by the distance travelled through the block.
-                    factor += occlusion * distance;
-                    lastHit = result.getLocation();
-                    lastState = ctx.world.getBlockState(result.getBlockPos());
-                } else {
-                    break;
-                }
-            }
+        double lastHitX = originX;
+        double lastHitY = originY;
+        double lastHitZ = originZ;
+        BlockState lastState = snapshot.getBlockState(Mth.floor(originX), Mth.floor(originY), Mth.floor(originZ));
+        double startX = originX;
+        double startY = originY;
+        double startZ = originZ;
+
+        for (int i = 0; i < segments; i++) {
+            if (!traceContext.trace(startX, startY, startZ, targetX, targetY, targetZ, hit))
+                break;
+
+            final float occlusion = AudioEffectLibrary.getOcclusion(lastState);
+            // Occlusion is scaled by the distance travelled through the block.
+            factor += occlusion * distance(lastHitX, lastHitY, lastHitZ, hit.x, hit.y, hit.z);
+            lastHitX = hit.x;
+            lastHitY = hit.y;
+            lastHitZ = hit.z;
+            lastState = snapshot.getBlockState(hit.pos);
+
+            if (hit.pos.getX() == targetBlockX && hit.pos.getY() == targetBlockY && hit.pos.getZ() == targetBlockZ)
+                break;
+
+            startX = hit.x + normalX;
+            startY = hit.y + normalY;
+            startZ = hit.z + normalZ;
         }
 
         return factor;
     }
 
-    private static float calculateWeatherAbsorption(@Nonnull final WorldContext ctx, @Nonnull final Vec3 pt1, @Nonnull final Vec3 pt2) {
+    private float calculateWeatherAbsorption(@Nonnull final WorldContext ctx, final double x, final double y, final double z) {
         assert ctx.world != null;
 
         if (!ctx.isPrecipitating)
             return 1F;
 
-        final BlockPos low = new BlockPos(pt1);
-        final BlockPos mid = new BlockPos(MathStuff.addScaled(pt1, pt2, 0.5F));
-        final BlockPos high = new BlockPos(pt2);
+        final Vec3 eye = ctx.playerEyePosition;
+        final BlockPos.MutableBlockPos pos = this.weatherPos;
 
         // Determine the precipitation type at each point
-        final Biome.Precipitation rt1 = WorldUtils.getCurrentPrecipitationAt(ctx.world, low);
-        final Biome.Precipitation rt2 = WorldUtils.getCurrentPrecipitationAt(ctx.world, mid);
-        final Biome.Precipitation rt3 = WorldUtils.getCurrentPrecipitationAt(ctx.world, high);
+        final Biome.Precipitation rt1 = WorldUtils.getCurrentPrecipitationAt(ctx.world, pos.set(x, y, z));
+        final Biome.Precipitation rt2 = WorldUtils.getCurrentPrecipitationAt(ctx.world, pos.set(x + eye.x * 0.5F, y + eye.y * 0.5F, z + eye.z * 0.5F));
+        final Biome.Precipitation rt3 = WorldUtils.getCurrentPrecipitationAt(ctx.world, pos.set(eye.x, eye.y, eye.z));
 
         // Calculate the impact of weather on dampening
         float factor = calcFactor(rt1, 0.25F);
@@ -407,24 +595,15 @@ public final class SoundFXUtils {
         return factor;
     }
 
-    @Nonnull
-    private static Vec3 surfaceNormal(@Nonnull final Direction d) {
-        return SURFACE_DIRECTION_NORMALS[d.ordinal()];
-    }
-
-    private static Vec3 offsetPositionIfSolid(@Nonnull final LevelReader world, @Nonnull final Vec3 origin, @Nonnull final Vec3 target) {
-        if (!WorldUtils.isAirBlock(world, new BlockPos(origin))) {
-            return MathStuff.addScaled(origin, MathStuff.normalize(origin, target), 0.876F);
-        }
-        return origin;
+    private static double distance(final double x1, final double y1, final double z1, final double x2, final double y2, final double z2) {
+        final double dx = x2 - x1;
+        final double dy = y2 - y1;
+        final double dz = z2 - z1;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
 
     private static float calcFactor(@Nonnull final Biome.Precipitation type, final float base) {
         return type == Biome.Precipitation.NONE ? base : base * (type == Biome.Precipitation.SNOW ? Effects.SNOW_AIR_ABSORPTION_FACTOR : Effects.RAIN_AIR_ABSORPTION_FACTOR);
     }
 
-    private static boolean isMiss(@Nullable final BlockHitResult result) {
-        return result == null || result.getType() == HitResult.Type.MISS;
-    }
-
 }
@@ -34,7 +34,7 @@ import net.minecraftforge.fml.event.config.ModConfigEvent;
 import org.orecruncher.lib.TickCounter;
 import org.orecruncher.lib.math.MathStuff;
 import org.orecruncher.sndctrl.SoundControl;
-import org.orecruncher.sndctrl.audio.SoundUtils;
+import org.orecruncher.sndctrl.audio.VoiceManager;
 import org.orecruncher.sndctrl.config.Config;
 import org.orecruncher.sndctrl.library.IndividualSoundConfig;
 
@@ -96,6 +96,14 @@ public final class SoundProcessor {
             if (cfg.getVolumeScaleInt() != 100)
                 volumeControl.put(cfg.getLocation(), MathStuff.clamp(cfg.getVolumeScale(), MIN_SOUNDFACTOR, MAX_SOUNDFACTOR));
         }
+
+        SoundRateLimiter.configure(
+                configs,
+                Config.CLIENT.sound.categoryPlayRate.get(),
+                Config.CLIENT.sound.playRateBurst.get(),
+                Config.CLIENT.sound.coalesceSounds.get());
+
+        SoundVolumeEvaluator.invalidate();
     }
 
     public static boolean isSoundBlocked(@Nonnull final ResourceLocation sound) {
@@ -133,21 +141,29 @@ public final class SoundProcessor {
 
     // Event handler for sound plays - hooked in static class initializer
     private static void soundPlay(@Nonnull final PlaySoundEvent e) {
-        // If there is no sound assigned, or if there is no more room in the play lists kill it
+        // If there is no sound assigned kill it
         final SoundInstance theSound = e.getSound();
-        if (theSound == null || !SoundUtils.hasRoom()) {
+        if (theSound == null) {
             e.setSound(null);
             e.setResult(null);
             return;
         }
 
         // Don't mess with our config sound instances from the config menu
-        if (MusicFader.isConfigSoundInstance(theSound))
-            return;
+        if (!MusicFader.isConfigSoundInstance(theSound)) {
+            // Check to see if we need to block sound processing, or if the sound is playing too often
+            final ResourceLocation soundResource = theSound.getLocation();
+            if (blockSoundProcess(soundResource) || !SoundRateLimiter.allow(theSound)) {
+                e.setSound(null);
+                e.setResult(null);
+                return;
+            }
+        }
 
-        // Check to see if we need to block sound processing
-        final ResourceLocation soundResource = theSound.getLocation();
-        if (blockSoundProcess(soundResource)) {
+        // If no room can be made in the play lists kill it.  Done last so a sound is not evicted for a play that
+        // would have been dropped anyway.
+        if (!VoiceManager.makeRoom(theSound)) {
+            SoundRateLimiter.dropped(theSound);
             e.setSound(null);
             e.setResult(null);
         }
@@ -0,0 +1,268 @@
+/*
+ * Dynamic Surroundings
+ * Copyright (C) 2020  OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.audio.handlers;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.client.resources.sounds.SoundInstance;
+import net.minecraft.client.resources.sounds.TickableSoundInstance;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.Mth;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.orecruncher.lib.TickCounter;
+import org.orecruncher.sndctrl.api.sound.Category;
+import org.orecruncher.sndctrl.api.sound.ISoundCategory;
+import org.orecruncher.sndctrl.api.sound.ISoundInstance;
+import org.orecruncher.sndctrl.audio.SoundUtils;
+import org.orecruncher.sndctrl.library.IndividualSoundConfig;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+
+/**
+ * Limits the rate at which sounds can be played.  Sounds can be limited individually via the individual sound
+ * config, and each sound category can be limited as a whole.  Limits are enforced with token buckets that allow
+ * short bursts above the rate.  In addition, plays of the same sound at nearly the same position within a couple
+ * of ticks are coalesced: the first play of the window is kept, later plays are dropped, and the kept play is made
+ * louder to account for them.  Only plain, non-tickable Minecraft sound instances are coalesced since the mod's own
+ * instances can be reused and tickable sounds are long running.  Must only be used from the client thread.
+ */
+@OnlyIn(Dist.CLIENT)
+final class SoundRateLimiter {
+
+    // Plays of the same sound within this many ticks of each other are coalesced
+    private static final int COALESCE_TICKS = 2;
+    // Size of the cell used to determine if sounds are at nearly the same position, as a power of 2
+    private static final int COALESCE_CELL_SHIFT = 1;
+    // Limit on how much louder a coalesced play can be made
+    private static final float MAX_COALESCE_GAIN = 2F;
+    private static final int PRUNE_INTERVAL = 20;
+
+    private static final Object2ObjectOpenHashMap<ResourceLocation, TokenBucket> soundBuckets = new Object2ObjectOpenHashMap<>(32);
+    private static final Reference2ObjectOpenHashMap<ISoundCategory, TokenBucket> categoryBuckets = new Reference2ObjectOpenHashMap<>(16);
+    private static final Object2ObjectOpenHashMap<ResourceLocation, Long2ObjectOpenHashMap<Window>> windows = new Object2ObjectOpenHashMap<>(64);
+    // Gain of kept plays that had other plays coalesced into them
+    private static final Reference2FloatOpenHashMap<SoundInstance> gains = new Reference2FloatOpenHashMap<>(16);
+
+    static {
+        gains.defaultReturnValue(1F);
+    }
+
+    private static int categoryRate;
+    private static int burst = 1;
+    private static boolean coalesce;
+    private static long lastPrune;
+
+    private SoundRateLimiter() {
+
+    }
+
+    static void configure(@Nonnull final Collection<IndividualSoundConfig> configs, final int categoryLimit, final int burstSeconds, final boolean coalesceSounds) {
+        soundBuckets.clear();
+        categoryBuckets.clear();
+        windows.clear();
+        gains.clear();
+
+        categoryRate = categoryLimit;
+        burst = burstSeconds;
+        coalesce = coalesceSounds;
+
+        for (final IndividualSoundConfig cfg : configs) {
+            if (cfg.getRateLimit() != IndividualSoundConfig.RATE_LIMIT_NONE)
+                soundBuckets.put(cfg.getLocation(), new TokenBucket(cfg.getRateLimit(), burst));
+        }
+    }
+
+    /**
+     * Determines if the sound can play.  A sound that is coalesced into an earlier play of the same sound is dropped,
+     * and the earlier play is made louder.
+     *
+     * @param sound Sound that is about to be played
+     * @return true if the sound can play; false if it should be dropped
+     */
+    static boolean allow(@Nonnull final SoundInstance sound) {
+        final long tick = TickCounter.getTickCount();
+        final ResourceLocation location = sound.getLocation();
+
+        final boolean canCoalesce = coalesce
+                && !(sound instanceof ISoundInstance)
+                && !(sound instanceof TickableSoundInstance)
+                && !sound.isRelative()
+                && sound.getAttenuation() != SoundInstance.Attenuation.NONE;
+
+        Long2ObjectOpenHashMap<Window> cells = null;
+        long cell = 0;
+        if (canCoalesce) {
+            prune(tick);
+            cell = getCell(sound);
+            cells = windows.get(location);
+            final Window window = cells == null ? null : cells.get(cell);
+            if (window != null) {
+                if (tick - window.start < COALESCE_TICKS) {
+                    // Identical sources add up in power, so the gain of the kept play goes with the square root of
+                    // the number of plays it stands in for.
+                    window.coalesced++;
+                    gains.put(window.kept, Math.min(MAX_COALESCE_GAIN, (float) Math.sqrt(1 + window.coalesced)));
+                    SoundUtils.updateVolume(window.kept);
+                    return false;
+                }
+                // The window is over.  Whatever boost it gave has been applied to its play.
+                remove(cells, cell);
+            }
+        }
+
+        final TokenBucket soundBucket = soundBuckets.get(location);
+        if (soundBucket != null && !soundBucket.hasToken(tick))
+            return false;
+
+        TokenBucket categoryBucket = null;
+        if (categoryRate > 0) {
+            final ISoundCategory category = Category.getCategory(sound).orElse(Category.MASTER);
+            if (isLimited(category)) {
+                categoryBucket = categoryBuckets.computeIfAbsent(category, k -> new TokenBucket(categoryRate, burst));
+                if (!categoryBucket.hasToken(tick))
+                    return false;
+            }
+        }
+
+        if (soundBucket != null)
+            soundBucket.take();
+        if (categoryBucket != null)
+            categoryBucket.take();
+
+        // Only a play that goes through can have others coalesced into it
+        if (canCoalesce) {
+            if (cells == null) {
+                cells = new Long2ObjectOpenHashMap<>(8);
+                windows.put(location, cells);
+            }
+            cells.put(cell, new Window(tick, sound));
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates that a sound that was allowed did not end up playing, so other plays can no longer be coalesced into
+     * it.
+     *
+     * @param sound Sound that was dropped
+     */
+    static void dropped(@Nonnull final SoundInstance sound) {
+        final Long2ObjectOpenHashMap<Window> cells = windows.get(sound.getLocation());
+        if (cells != null) {
+            final long cell = getCell(sound);
+            final Window window = cells.get(cell);
+            if (window != null && window.kept == sound)
+                remove(cells, cell);
+        }
+    }
+
+    /**
+     * Gets the gain a sound was given for the plays that were coalesced into it.  Applied by the volume evaluator on
+     * top of the clamped volume.
+     *
+     * @param sound Sound to check
+     * @return Gain of the sound; 1 if nothing was coalesced into it
+     */
+    static float getGain(@Nonnull final SoundInstance sound) {
+        return gains.isEmpty() ? 1F : gains.getFloat(sound);
+    }
+
+    private static boolean isLimited(@Nonnull final ISoundCategory category) {
+        // Music and the like are long running and few, and the rest are not sounds from the world
+        return category != Category.MASTER
+                && category != Category.MUSIC
+                && category != Category.RECORDS
+                && category != Category.CONFIG;
+    }
+
+    private static void prune(final long tick) {
+        if (tick - lastPrune < PRUNE_INTERVAL)
+            return;
+        lastPrune = tick;
+        windows.values().removeIf(cells -> {
+            cells.values().removeIf(w -> {
+                if (tick - w.start < PRUNE_INTERVAL)
+                    return false;
+                gains.removeFloat(w.kept);
+                return true;
+            });
+            return cells.isEmpty();
+        });
+    }
+
+    private static long getCell(@Nonnull final SoundInstance sound) {
+        return BlockPos.asLong(
+                Mth.floor(sound.getX()) >> COALESCE_CELL_SHIFT,
+                Mth.floor(sound.getY()) >> COALESCE_CELL_SHIFT,
+                Mth.floor(sound.getZ()) >> COALESCE_CELL_SHIFT);
+    }
+
+    private static void remove(@Nonnull final Long2ObjectOpenHashMap<Window> cells, final long cell) {
+        final Window window = cells.remove(cell);
+        if (window != null)
+            gains.removeFloat(window.kept);
+    }
+
+    private static final class Window {
+        final long start;
+        final SoundInstance kept;
+        int coalesced;
+
+        Window(final long start, @Nonnull final SoundInstance kept) {
+            this.start = start;
+            this.kept = kept;
+        }
+    }
+
+    /**
+     * Token bucket that refills at a fixed rate per second.  Refills are calculated lazily from the tick of the
+     * last check so idle buckets cost nothing.
+     */
+    private static final class TokenBucket {
+        private final float perTick;
+        private final float capacity;
+        private float tokens;
+        private long lastTick;
+
+        TokenBucket(final int perSecond, final int burstSeconds) {
+            this.perTick = perSecond / 20F;
+            this.capacity = Math.max(1F, (float) perSecond * burstSeconds);
+            this.tokens = this.capacity;
+            this.lastTick = TickCounter.getTickCount();
+        }
+
+        boolean hasToken(final long tick) {
+            if (tick != this.lastTick) {
+                this.tokens = Math.min(this.capacity, this.tokens + (tick - this.lastTick) * this.perTick);
+                this.lastTick = tick;
+            }
+            return this.tokens >= 1F;
+        }
+
+        void take() {
+            this.tokens -= 1F;
+        }
+    }
+}
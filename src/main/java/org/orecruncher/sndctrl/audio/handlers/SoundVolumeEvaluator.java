@@ -24,20 +24,22 @@ import net.minecraft.sounds.SoundSource;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import org.orecruncher.lib.GameUtils;
-import org.orecruncher.lib.Utilities;
 import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.math.MathStuff;
 import org.orecruncher.sndctrl.api.sound.Category;
 import org.orecruncher.sndctrl.api.sound.ISoundCategory;
 import org.orecruncher.sndctrl.api.sound.ISoundInstance;
+import org.orecruncher.sndctrl.misc.IMixinSoundVolume;
 
 import javax.annotation.Nonnull;
-import java.util.Optional;
 import java.util.function.Function;
 
 /**
  * Handler that calculates an effective volume for a given sound based on
- * various factors, including any user configured sound scaling.
+ * various factors, including any user configured sound scaling.  The part of
+ * the scale that does not change over the life of a sound instance is cached
+ * on the instance, and is recalculated when the configuration or the
+ * registered callbacks change.
  */
 @OnlyIn(Dist.CLIENT)
 public final class SoundVolumeEvaluator {
@@ -45,32 +47,73 @@ public final class SoundVolumeEvaluator {
     // Callbacks from other mods where volume can be scaled.  Goal is to get mods to use this callback rather than
     // replacing the sound during sound play.
     private static final ObjectArray<Function<SoundInstance, Float>> volumeScaleCallbacks = new ObjectArray<>();
+    // Callbacks that always return the same scale for a given sound instance, so their result can be cached
+    private static final ObjectArray<Function<SoundInstance, Float>> staticVolumeScaleCallbacks = new ObjectArray<>();
+
+    // Bumped whenever cached volume scales need to be recalculated
+    private static volatile int generation = 1;
 
     private SoundVolumeEvaluator() {
     }
 
     public static void register(@Nonnull final Function<SoundInstance, Float> callback) {
-        volumeScaleCallbacks.add(callback);
+        register(callback, false);
     }
 
-    private static float getVolumeScaleFromMods(@Nonnull final SoundInstance sound) {
-        float result = SoundProcessor.getVolumeScale(sound);
-        for (final Function<SoundInstance, Float> callback : volumeScaleCallbacks) {
+    /**
+     * Registers a callback that can scale the volume of a sound.
+     *
+     * @param callback Callback to register
+     * @param isStatic true if the callback always returns the same scale for a given sound instance
+     */
+    public static void register(@Nonnull final Function<SoundInstance, Float> callback, final boolean isStatic) {
+        if (isStatic)
+            staticVolumeScaleCallbacks.add(callback);
+        else
+            volumeScaleCallbacks.add(callback);
+        invalidate();
+    }
+
+    /**
+     * Causes the cached volume scales of sound instances to be recalculated on next use.
+     */
+    public static void invalidate() {
+        generation++;
+    }
+
+    private static float applyCallbacks(@Nonnull final ObjectArray<Function<SoundInstance, Float>> callbacks, @Nonnull final SoundInstance sound, float result) {
+        for (int i = 0; i < callbacks.size() && result != 0F; i++) {
             try {
-                result = MathStuff.min(result, callback.apply(sound));
-                if (result == 0F)
-                    break;
+                result = MathStuff.min(result, callbacks.get(i).apply(sound));
             } catch (@Nonnull final Throwable ignore) {
             }
         }
+        return result;
+    }
 
+    private static float getStaticVolumeScale(@Nonnull final SoundInstance sound) {
+        return applyCallbacks(staticVolumeScaleCallbacks, sound, SoundProcessor.getVolumeScale(sound));
+    }
+
+    private static float getVolumeScaleFromMods(@Nonnull final SoundInstance sound) {
+        float result;
+        if (sound instanceof IMixinSoundVolume) {
+            final IMixinSoundVolume cache = (IMixinSoundVolume) sound;
+            final int gen = generation;
+            if (cache.getVolumeGeneration() != gen)
+                cache.setVolumeScale(getStaticVolumeScale(sound), gen);
+            result = cache.getVolumeScale();
+        } else {
+            result = getStaticVolumeScale(sound);
+        }
+
+        result = applyCallbacks(volumeScaleCallbacks, sound, result);
         return MathStuff.clamp(result, 0, 4F);
     }
 
     private static float getCategoryVolumeScale(@Nonnull final SoundInstance sound) {
-        final Optional<ISoundInstance> si = Utilities.safeCast(sound, ISoundInstance.class);
-        if (si.isPresent()) {
-            final ISoundCategory sc = si.get().getSoundCategory();
+        if (sound instanceof ISoundInstance) {
+            final ISoundCategory sc = ((ISoundInstance) sound).getSoundCategory();
             return sc == Category.MASTER ? 1F : sc.getVolumeScale();
         }
 
@@ -94,7 +137,8 @@ public final class SoundVolumeEvaluator {
         float volume = getVolumeScaleFromMods(sound)
                 * getCategoryVolumeScale(sound)
                 * sound.getVolume();
-        return MathStuff.clamp1(volume);
+        // A play that stands in for coalesced plays is allowed to go past full volume
+        return MathStuff.clamp1(volume) * SoundRateLimiter.getGain(sound);
     }
 
 }
@@ -35,14 +35,14 @@ import org.orecruncher.sndctrl.audio.handlers.effects.SourcePropertyFloat;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Used to track and apply sound effects for a given sound instance in the sound engine.  It is also a task to
- * facilitate queuing to background processing.
+ * Used to track and apply sound effects for a given sound instance in the sound engine.  Instances are batched
+ * by the SoundFXProcessor for background processing.
  */
 @OnlyIn(Dist.CLIENT)
-public final class SourceContext implements Callable<Void> {
+public final class SourceContext {
 
     private static final IModLog LOGGER = SoundControl.LOGGER.createChild(SourceContext.class);
     // Lightweight randomizer used to distribute updates across an interval
@@ -50,7 +50,15 @@ public final class SourceContext implements Callable<Void> {
     // Frequency of sound effect updates in thread schedule ticks.  Works out to be 3 times a second.
     private static final int UPDATE_FEQUENCY_TICKS = 7;
 
-    private final Object sync = new Object();
+    // Effect parameters are triple buffered so the calculation can publish a complete result without the sound
+    // engine thread having to wait.  The calculation fills "pending" and swaps it into "published".  The sound thread
+    // swaps "published" with "current" when it holds a newer version.  Each block is only ever owned by one side.
+    private final AtomicReference<EffectParameters> published = new AtomicReference<>(new EffectParameters());
+    private EffectParameters pending = new EffectParameters();
+    private EffectParameters current = new EffectParameters();
+    private long version;
+
+    // State of the sound source as last applied by the sound engine thread
     private final LowPassData lowPass0;
     private final LowPassData lowPass1;
     private final LowPassData lowPass2;
@@ -77,10 +85,6 @@ public final class SourceContext implements Callable<Void> {
         this.fxProcessor = new SoundFXUtils(this);
     }
 
-    public Object sync() {
-        return this.sync;
-    }
-
     public boolean isEnabled() {
         return this.isEnabled;
     }
@@ -119,6 +123,31 @@ public final class SourceContext implements Callable<Void> {
         return this.airAbsorb;
     }
 
+    /**
+     * Gain of the direct path to the listener from the most recently published effect calculation.  Safe to call
+     * from any thread, though the value is only a best effort snapshot.
+     */
+    public float getDirectGain() {
+        return this.published.get().directGain;
+    }
+
+    /**
+     * Obtains the parameter block to fill in with the results of an effect calculation.  Only call from the thread
+     * performing the calculation.
+     */
+    @Nonnull
+    EffectParameters beginUpdate() {
+        return this.pending;
+    }
+
+    /**
+     * Publishes the parameter block obtained from beginUpdate() so the sound engine thread can pick it up.
+     */
+    void publishUpdate() {
+        this.pending.version = ++this.version;
+        this.pending = this.published.getAndSet(this.pending);
+    }
+
     @Nonnull
     public Vec3 getPosition() {
         return this.pos;
@@ -142,23 +171,70 @@ public final class SourceContext implements Callable<Void> {
 
     /**
      * Called on the SoundSource update thread when updating status.  Do not call from the client thread or bad things
-     * can happen.
+     * can happen.  Only the parameters that have changed since the last upload are sent to the sound source.
+     *
+     * @return true if any data was uploaded to the sound source; false otherwise
      */
-    public void tick(final int sourceId) {
+    public boolean tick(final int sourceId) {
         if (isEnabled()) {
-            synchronized (this.sync()) {
-                // Upload the data
-                Effects.filter0.apply(sourceId, this.lowPass0, 0, Effects.auxSlot0);
-                Effects.filter1.apply(sourceId, this.lowPass1, 1, Effects.auxSlot1);
-                Effects.filter2.apply(sourceId, this.lowPass2, 2, Effects.auxSlot2);
-                Effects.filter3.apply(sourceId, this.lowPass3, 3, Effects.auxSlot3);
-                Effects.direct.apply(sourceId, this.direct);
+            // The version check is racy, but a stale read only delays picking up the block until the next tick.  The
+            // swap itself is what hands ownership of the block to this thread.
+            if (this.published.get().version > this.current.version) {
+                this.current = this.published.getAndSet(this.current);
+                capture(this.current);
+            }
 
-                this.airAbsorb.apply(sourceId);
+            if (!isDirty())
+                return false;
 
-                SoundFXProcessor.validate("SourceHandler::tick");
-            }
+            // Upload the data
+            Effects.filter0.apply(sourceId, this.lowPass0, 0, Effects.auxSlot0);
+            Effects.filter1.apply(sourceId, this.lowPass1, 1, Effects.auxSlot1);
+            Effects.filter2.apply(sourceId, this.lowPass2, 2, Effects.auxSlot2);
+            Effects.filter3.apply(sourceId, this.lowPass3, 3, Effects.auxSlot3);
+            Effects.direct.apply(sourceId, this.direct);
+
+            this.airAbsorb.apply(sourceId);
+
+            SoundFXProcessor.validate("SourceHandler::tick");
+            return true;
         }
+        return false;
+    }
+
+    private void capture(@Nonnull final EffectParameters params) {
+        this.lowPass0.gain = params.sendGain0;
+        this.lowPass0.gainHF = params.sendCutoff0;
+        this.lowPass0.setProcess(params.process);
+
+        this.lowPass1.gain = params.sendGain1;
+        this.lowPass1.gainHF = params.sendCutoff1;
+        this.lowPass1.setProcess(params.process);
+
+        this.lowPass2.gain = params.sendGain2;
+        this.lowPass2.gainHF = params.sendCutoff2;
+        this.lowPass2.setProcess(params.process);
+
+        this.lowPass3.gain = params.sendGain3;
+        this.lowPass3.gainHF = params.sendCutoff3;
+        this.lowPass3.setProcess(params.process);
+
+        this.direct.gain = params.directGain;
+        this.direct.gainHF = params.directCutoff;
+        this.direct.setProcess(params.process);
+
+        if (params.process)
+            this.airAbsorb.setValue(params.airAbsorptionFactor);
+        this.airAbsorb.setProcess(params.process);
+    }
+
+    private boolean isDirty() {
+        return this.lowPass0.isDirty()
+                || this.lowPass1.isDirty()
+                || this.lowPass2.isDirty()
+                || this.lowPass3.isDirty()
+                || this.direct.isDirty()
+                || this.airAbsorb.isDirty();
     }
 
     /**
@@ -175,13 +251,6 @@ public final class SourceContext implements Callable<Void> {
         return (this.updateCount++ % UPDATE_FEQUENCY_TICKS) == 0;
     }
 
-    @Override
-    public Void call() throws Exception {
-        captureState();
-        updateImpl();
-        return null;
-    }
-
     /**
      * Called by the thread pool when executing the task
      *
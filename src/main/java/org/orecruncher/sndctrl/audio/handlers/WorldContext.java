@@ -29,7 +29,9 @@ import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import org.orecruncher.lib.GameUtils;
+import org.orecruncher.lib.TickCounter;
 import org.orecruncher.lib.WorldUtils;
+import org.orecruncher.lib.world.WorldSnapshot;
 import org.orecruncher.sndctrl.library.AudioEffectLibrary;
 
 @OnlyIn(Dist.CLIENT)
@@ -47,6 +49,10 @@ public final class WorldContext {
      * Reference to the player's world
      */
     public final LevelReader world;
+    /**
+     * Snapshot of the blocks surrounding the player.  Safe to read from background threads.
+     */
+    public final WorldSnapshot snapshot;
     /**
      * Position of the player.
      */
@@ -75,8 +81,17 @@ public final class WorldContext {
      * Coefficient used for dampening sound.  Usually caused by the player's head being in lava or water.
      */
     public final float auralDampening;
+    /**
+     * Client tick at which the context was captured.
+     */
+    public final long tick;
+    /**
+     * Occlusion and weather absorption results shared by sounds coming from the same block during this tick.
+     */
+    public final PathCache pathCache = new PathCache();
 
     public WorldContext() {
+        this.tick = TickCounter.getTickCount();
         if (GameUtils.isInGame()) {
             final Level w = GameUtils.getWorld();
             this.world = w;
@@ -90,6 +105,7 @@ public final class WorldContext {
             this.playerEyePosition = this.player.getEyePosition(1F);
             this.playerPos = new BlockPos(this.playerPosition);
             this.playerEyePos = new BlockPos(this.playerEyePosition);
+            this.snapshot = WorldSnapshot.capture(w, this.playerEyePos);
 
             final Fluid fs = this.player.level.getFluidState(this.playerEyePos).getType();
             final ResourceLocation name = fs.getRegistryName();
@@ -105,6 +121,7 @@ public final class WorldContext {
             this.mc = null;
             this.player = null;
             this.world = null;
+            this.snapshot = WorldSnapshot.EMPTY;
             this.isPrecipitating = false;
             this.playerPosition = Vec3.ZERO;
             this.playerEyePosition = Vec3.ZERO;
@@ -26,9 +26,34 @@ public final class LowPassData extends EffectData {
     public float gain = EXTEfx.AL_LOWPASS_DEFAULT_GAIN;
     public float gainHF = EXTEfx.AL_LOWPASS_DEFAULT_GAINHF;
 
+    // State last uploaded to the sound source.  NaN forces the first upload.
+    private boolean uploadedProcess;
+    private float uploadedGain = Float.NaN;
+    private float uploadedGainHF = Float.NaN;
+
     public LowPassData() {
     }
 
+    /**
+     * Indicates if the data has changed since it was last uploaded to the sound source.
+     *
+     * @return true if the data needs to be uploaded; false otherwise
+     */
+    public boolean isDirty() {
+        return this.process != this.uploadedProcess
+                || (this.process && (this.gain != this.uploadedGain || this.gainHF != this.uploadedGainHF))
+                || Float.isNaN(this.uploadedGain);
+    }
+
+    /**
+     * Records the current state as having been uploaded to the sound source.
+     */
+    public void markClean() {
+        this.uploadedProcess = this.process;
+        this.uploadedGain = this.gain;
+        this.uploadedGainHF = this.gainHF;
+    }
+
     /**
      * Ensures that the effect data is properly bounded.
      */
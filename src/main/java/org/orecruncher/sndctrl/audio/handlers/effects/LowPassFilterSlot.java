@@ -37,29 +37,53 @@ public class LowPassFilterSlot extends Slot {
         EXTEfx.alFilteri(getSlot(), EXTEfx.AL_FILTER_TYPE, EXTEfx.AL_FILTER_LOWPASS);
     }
 
-    public void apply(final int sourceId, @Nonnull final LowPassData data) {
+    /**
+     * Uploads the filter data as the direct filter of the sound source if it has changed.
+     *
+     * @return true if the data was uploaded; false otherwise
+     */
+    public boolean apply(final int sourceId, @Nonnull final LowPassData data) {
         if (isInitialized()) {
-            if (data.doProcess()) {
+            if (data.doProcess())
                 data.clamp();
+            // The source keeps its own copy of the filter so there is nothing to do if the data hasn't changed
+            if (!data.isDirty())
+                return false;
+            if (data.doProcess()) {
                 execute(() -> EXTEfx.alFilterf(getSlot(), EXTEfx.AL_LOWPASS_GAIN, data.gain), () -> "LowPassFilterSlot EXTEfx.AL_DIRECT_FILTER gain");
                 execute(() -> EXTEfx.alFilterf(getSlot(), EXTEfx.AL_LOWPASS_GAINHF, data.gainHF), () -> "LowPassFilterSlot EXTEfx.AL_DIRECT_FILTER gainHF");
                 execute(() -> AL11.alSourcei(sourceId, EXTEfx.AL_DIRECT_FILTER, getSlot()), () -> "LowPassFilterSlot EXTEfx.AL_DIRECT_FILTER upload");
             } else {
                 execute(() -> AL11.alSourcei(sourceId, EXTEfx.AL_DIRECT_FILTER, EXTEfx.AL_EFFECTSLOT_NULL), () -> "LowPassFilterSlot EXTEfx.AL_DIRECT_FILTER null");
             }
+            data.markClean();
+            return true;
         }
+        return false;
     }
 
-    public void apply(final int sourceId, @Nonnull final LowPassData data, final int auxSend, @Nonnull final AuxSlot aux) {
+    /**
+     * Uploads the filter data as the filter of an auxiliary send of the sound source if it has changed.
+     *
+     * @return true if the data was uploaded; false otherwise
+     */
+    public boolean apply(final int sourceId, @Nonnull final LowPassData data, final int auxSend, @Nonnull final AuxSlot aux) {
         if (isInitialized()) {
-            if (data.doProcess()) {
+            if (data.doProcess())
                 data.clamp();
+            // The source keeps its own copy of the filter so there is nothing to do if the data hasn't changed
+            if (!data.isDirty())
+                return false;
+            if (data.doProcess()) {
                 execute(() -> EXTEfx.alFilterf(getSlot(), EXTEfx.AL_LOWPASS_GAIN, data.gain), () -> "LowPassFilterSlot EXTEfx.AL_AUXILIARY_SEND_FILTER gain");
                 execute(() -> EXTEfx.alFilterf(getSlot(), EXTEfx.AL_LOWPASS_GAINHF, data.gainHF), () -> "LowPassFilterSlot EXTEfx.AL_AUXILIARY_SEND_FILTER gainHF");
                 execute(() -> AL11.alSource3i(sourceId, EXTEfx.AL_AUXILIARY_SEND_FILTER, aux.getSlot(), auxSend, getSlot()), () -> "LowPassFilterSlot EXTEfx.AL_AUXILIARY_SEND_FILTER upload");
             } else {
                 execute(() -> AL11.alSource3i(sourceId, EXTEfx.AL_AUXILIARY_SEND_FILTER, EXTEfx.AL_EFFECTSLOT_NULL, auxSend, EXTEfx.AL_FILTER_NULL), () -> "LowPassFilterSlot EXTEfx.AL_AUXILIARY_SEND_FILTER null");
             }
+            data.markClean();
+            return true;
         }
+        return false;
     }
 }
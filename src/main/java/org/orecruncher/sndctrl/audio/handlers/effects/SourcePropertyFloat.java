@@ -32,6 +32,7 @@ public final class SourcePropertyFloat {
     private final float max;
     private float value;
     private boolean process;
+    private boolean dirty;
 
     public SourcePropertyFloat(final int property, final float val, final float min, final float max) {
         this.property = property;
@@ -39,6 +40,7 @@ public final class SourcePropertyFloat {
         this.min = min;
         this.max = max;
         this.process = false;
+        this.dirty = true;
     }
 
     public boolean doProcess() {
@@ -46,7 +48,14 @@ public final class SourcePropertyFloat {
     }
 
     public void setProcess(final boolean flag) {
-        this.process = flag;
+        if (this.process != flag) {
+            this.process = flag;
+            this.dirty = true;
+        }
+    }
+
+    public boolean isDirty() {
+        return this.dirty;
     }
 
     public float getValue() {
@@ -54,13 +63,27 @@ public final class SourcePropertyFloat {
     }
 
     public void setValue(final float f) {
-        this.value = MathStuff.clamp(f, this.min, this.max);
+        final float v = MathStuff.clamp(f, this.min, this.max);
+        if (this.value != v) {
+            this.value = v;
+            this.dirty = true;
+        }
     }
 
-    public void apply(final int sourceId) {
+    /**
+     * Uploads the property value to the sound source if it has changed since the last upload.
+     *
+     * @return true if the value was uploaded; false otherwise
+     */
+    public boolean apply(final int sourceId) {
+        if (!this.dirty)
+            return false;
+        this.dirty = false;
         if (doProcess()) {
             AL11.alSourcef(sourceId, this.property, getValue());
             SoundFXProcessor.validate("SourcePropertyFloat apply");
+            return true;
         }
+        return false;
     }
 }
\ No newline at end of file
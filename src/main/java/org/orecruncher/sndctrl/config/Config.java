@@ -115,6 +115,9 @@ public final class Config {
             public final BooleanValue enableOcclusionCalcs;
             public final BooleanValue enableMonoConversion;
             public final IntValue cullInterval;
+            public final IntValue categoryPlayRate;
+            public final IntValue playRateBurst;
+            public final BooleanValue coalesceSounds;
             public final IntValue backgroundThreadWorkers;
             public final IntValue streamingSoundCount;
             public final BooleanValue occludeWeather;
@@ -179,6 +182,21 @@ public final class Config {
                         .translation("sndctrl.cfg.sound.CullInterval")
                         .defineInRange("Sound Culling Interval", 20, 0, 6000);
 
+                this.categoryPlayRate = builder
+                        .comment("Maximum number of sounds per second that can play in each sound category (0 for no limit)")
+                        .translation("sndctrl.cfg.sound.CategoryPlayRate")
+                        .defineInRange("Category Play Rate", 0, 0, 1000);
+
+                this.playRateBurst = builder
+                        .comment("Number of seconds worth of plays that can burst above a play rate limit")
+                        .translation("sndctrl.cfg.sound.PlayRateBurst")
+                        .defineInRange("Play Rate Burst", 2, 1, 10);
+
+                this.coalesceSounds = builder
+                        .comment("Combine plays of the same sound at nearly the same position into a single louder play")
+                        .translation("sndctrl.cfg.sound.CoalesceSounds")
+                        .define("Coalesce Sounds", false);
+
                 this.backgroundThreadWorkers = builder
                         .worldRestart()
                         .comment("Number of background threads to handle sound effect calculations (0 is default)")
@@ -93,6 +93,21 @@ public class ConfigGenerator {
                         builder,
                         Config.CLIENT.sound.cullInterval));
 
+        subCategory.add(
+                ClothAPIFactory.createInteger(
+                        builder,
+                        Config.CLIENT.sound.categoryPlayRate));
+
+        subCategory.add(
+                ClothAPIFactory.createIntegerSlider(
+                        builder,
+                        Config.CLIENT.sound.playRateBurst));
+
+        subCategory.add(
+                ClothAPIFactory.createBoolean(
+                        builder,
+                        Config.CLIENT.sound.coalesceSounds));
+
         subCategory.add(
                 ClothAPIFactory.createIntegerSlider(
                         builder,
@@ -65,6 +65,7 @@ public class IndividualSoundControlListEntry extends ContainerObjectSelectionLis
     private static final Component CULL_OFF = new TranslatableComponent("sndctrl.text.soundconfig.nocull");
     private static final Component BLOCK_ON = new TranslatableComponent("sndctrl.text.soundconfig.block");
     private static final Component BLOCK_OFF = new TranslatableComponent("sndctrl.text.soundconfig.noblock");
+    private static final Component NO_RATE = new TranslatableComponent("sndctrl.text.soundconfig.norate");
     private static final Component PLAY = new TranslatableComponent("sndctrl.text.soundconfig.play");
     private static final Component STOP = new TranslatableComponent("sndctrl.text.soundconfig.stop");
     private static final Component VANILLA_CREDIT = new TranslatableComponent("sndctrl.text.tooltip.vanilla");
@@ -75,6 +76,10 @@ public class IndividualSoundControlListEntry extends ContainerObjectSelectionLis
     private static final Collection<Component> PLAY_HELP = GuiHelpers.getTrimmedTextCollection("sndctrl.text.soundconfig.play.help", TOOLTIP_WIDTH, CODING);
     private static final Collection<Component> CULL_HELP = GuiHelpers.getTrimmedTextCollection("sndctrl.text.soundconfig.cull.help", TOOLTIP_WIDTH, CODING);
     private static final Collection<Component> BLOCK_HELP = GuiHelpers.getTrimmedTextCollection("sndctrl.text.soundconfig.block.help", TOOLTIP_WIDTH, CODING);
+    private static final Collection<Component> RATE_HELP = GuiHelpers.getTrimmedTextCollection("sndctrl.text.soundconfig.rate.help", TOOLTIP_WIDTH, CODING);
+
+    // Play rate limits, in plays per second, that the rate button cycles through
+    private static final int[] RATE_LIMITS = {IndividualSoundConfig.RATE_LIMIT_NONE, 1, 2, 5, 10, 20};
 
     private static final int CONTROL_SPACING = 3;
 
@@ -82,6 +87,7 @@ public class IndividualSoundControlListEntry extends ContainerObjectSelectionLis
     private final Slider volume;
     private final Button blockButton;
     private final Button cullButton;
+    private final Button rateButton;
     private final Button playButton;
 
     private final List<AbstractWidget> children = new ArrayList<>();
@@ -127,6 +133,15 @@ public class IndividualSoundControlListEntry extends ContainerObjectSelectionLis
                 this::toggleCull);
         this.children.add(this.cullButton);
 
+        this.rateButton = new Button(
+                0,
+                0,
+                BUTTON_WIDTH,
+                0,
+                getRateText(this.config.getRateLimit()),
+                this::cycleRate);
+        this.children.add(this.rateButton);
+
         this.playButton = new Button(
                 0,
                 0,
@@ -178,6 +193,11 @@ public class IndividualSoundControlListEntry extends ContainerObjectSelectionLis
         this.cullButton.x = rightMargin - this.cullButton.getWidth();
         this.cullButton.setHeight(rowHeight);
         this.cullButton.y = rowTop;
+        rightMargin -= this.cullButton.getWidth() + CONTROL_SPACING;
+
+        this.rateButton.x = rightMargin - this.rateButton.getWidth();
+        this.rateButton.setHeight(rowHeight);
+        this.rateButton.y = rowTop;
 
         for (final AbstractWidget w : this.children)
             w.render(matrixStack, mouseX, mouseY, partialTick_);
@@ -193,6 +213,25 @@ public class IndividualSoundControlListEntry extends ContainerObjectSelectionLis
         button.setMessage(this.config.isCulled() ? CULL_ON : CULL_OFF);
     }
 
+    protected void cycleRate(@Nonnull final Button button) {
+        // Advance to the next preset above the current limit, wrapping back around to no limit
+        final int current = this.config.getRateLimit();
+        int next = IndividualSoundConfig.RATE_LIMIT_NONE;
+        for (final int limit : RATE_LIMITS) {
+            if (limit > current) {
+                next = limit;
+                break;
+            }
+        }
+        this.config.setRateLimit(next);
+        button.setMessage(getRateText(next));
+    }
+
+    @Nonnull
+    private static Component getRateText(final int limit) {
+        return limit == IndividualSoundConfig.RATE_LIMIT_NONE ? NO_RATE : new TranslatableComponent("sndctrl.text.soundconfig.rate", limit);
+    }
+
     @Override
     public void onChangeSliderValue(@Nonnull final Slider slider) {
         this.config.setVolumeScaleInt(slider.getValueInt());
@@ -267,6 +306,8 @@ public class IndividualSoundControlListEntry extends ContainerObjectSelectionLis
             result.addAll(BLOCK_HELP);
         } else if (this.cullButton.isMouseOver(mouseX, mouseY)) {
             result.addAll(CULL_HELP);
+        } else if (this.rateButton.isMouseOver(mouseX, mouseY)) {
+            result.addAll(RATE_HELP);
         } else if (this.playButton.isMouseOver(mouseX, mouseY)) {
             result.addAll(PLAY_HELP);
         }
@@ -38,6 +38,7 @@ import org.orecruncher.sndctrl.audio.acoustic.SimultaneousAcoustic;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -58,6 +59,16 @@ public final class AcousticLibrary {
         return compiled.entrySet().stream().map(kvp -> String.format("%s -> %s", kvp.getKey(), kvp.getValue().toString())).sorted();
     }
 
+    /**
+     * Visits each of the acoustics in the library.  An acoustic is visited once for each name it is registered
+     * under.
+     *
+     * @param consumer Consumer to receive the acoustics
+     */
+    public static void forEach(@Nonnull final Consumer<IAcoustic> consumer) {
+        compiled.values().forEach(consumer);
+    }
+
     /**
      * Adds/replaces a known acoustic in the library.
      *
@@ -294,6 +294,12 @@ public final class AudioEffectLibrary {
             stop();
             start();
         }
+
+        @Override
+        public void precache(@Nonnull final BlockState state) {
+            // Resolved up front so the sound worker threads only ever read the cached data
+            resolve(state);
+        }
     }
 
 }
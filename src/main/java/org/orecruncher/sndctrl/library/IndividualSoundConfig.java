@@ -33,22 +33,28 @@ public final class IndividualSoundConfig {
 
     private static final String BLOCK_TOKEN = "block";
     private static final String CULL_TOKEN = "cull";
+    private static final String RATE_SUFFIX = "/s";
     private static final String DELIMITER = " ";
 
     public static final int DEFAULT_VOLUME_SCALE = 100;
     public static final int VOLUME_SCALE_MIN = 0;
     public static final int VOLUME_SCALE_MAX = 400;
 
+    public static final int RATE_LIMIT_NONE = 0;
+    public static final int RATE_LIMIT_MAX = 1000;
+
     private final ResourceLocation location;
     private boolean isBocked;
     private boolean isCulled;
     private int volumeScale;
+    private int rateLimit;
 
     public IndividualSoundConfig(@Nonnull final SoundEvent soundEvent) {
         this.location = soundEvent.getLocation();
         this.isBocked = false;
         this.isCulled = false;
         this.volumeScale = DEFAULT_VOLUME_SCALE;
+        this.rateLimit = RATE_LIMIT_NONE;
     }
 
     public IndividualSoundConfig(@Nonnull final IndividualSoundConfig source) {
@@ -56,6 +62,7 @@ public final class IndividualSoundConfig {
         this.isBocked = source.isBocked;
         this.isCulled = source.isCulled;
         this.volumeScale = source.volumeScale;
+        this.rateLimit = source.rateLimit;
     }
 
     public static boolean isValid(@Nonnull final String text) {
@@ -77,7 +84,7 @@ public final class IndividualSoundConfig {
     public static IndividualSoundConfig createFrom(@Nonnull final String entry) {
         IndividualSoundConfig result = null;
         final String[] parts = entry.split(DELIMITER);
-        if (parts.length == 0 || parts.length > 4) {
+        if (parts.length == 0 || parts.length > 5) {
             return null;
         } else {
             if (isResourceNameValid(parts[0])) {
@@ -87,12 +94,20 @@ public final class IndividualSoundConfig {
                     boolean isCulled = false;
                     boolean isBlocked = false;
                     int volumeControl = DEFAULT_VOLUME_SCALE;
+                    int rateLimit = RATE_LIMIT_NONE;
 
                     for (int i = 1; i < parts.length; i++) {
                         if (CULL_TOKEN.compareToIgnoreCase(parts[i]) == 0) {
                             isCulled = true;
                         } else if (BLOCK_TOKEN.compareToIgnoreCase(parts[i]) == 0) {
                             isBlocked = true;
+                        } else if (parts[i].endsWith(RATE_SUFFIX)) {
+                            try {
+                                rateLimit = Integer.parseInt(parts[i].substring(0, parts[i].length() - RATE_SUFFIX.length()));
+                            } catch (final Throwable t) {
+                                // Can't parse the token - bad entry
+                                return null;
+                            }
                         } else {
                             try {
                                 volumeControl = Integer.parseInt(parts[i]);
@@ -107,6 +122,7 @@ public final class IndividualSoundConfig {
                     result.isBocked = isBlocked;
                     result.isCulled = isCulled;
                     result.volumeScale = MathStuff.clamp(volumeControl, VOLUME_SCALE_MIN, VOLUME_SCALE_MAX);
+                    result.rateLimit = MathStuff.clamp(rateLimit, RATE_LIMIT_NONE, RATE_LIMIT_MAX);
                 }
             }
         }
@@ -120,7 +136,7 @@ public final class IndividualSoundConfig {
     }
 
     public boolean isDefault() {
-        return !(this.isBocked || this.isCulled || volumeScale != DEFAULT_VOLUME_SCALE);
+        return !(this.isBocked || this.isCulled || volumeScale != DEFAULT_VOLUME_SCALE || rateLimit != RATE_LIMIT_NONE);
     }
 
     public boolean isBlocked() {
@@ -151,6 +167,17 @@ public final class IndividualSoundConfig {
         this.volumeScale = MathStuff.clamp(scale, VOLUME_SCALE_MIN, VOLUME_SCALE_MAX);
     }
 
+    /**
+     * Maximum number of times per second the sound can be played, or RATE_LIMIT_NONE if not limited.
+     */
+    public int getRateLimit() {
+        return this.rateLimit;
+    }
+
+    public void setRateLimit(final int limit) {
+        this.rateLimit = MathStuff.clamp(limit, RATE_LIMIT_NONE, RATE_LIMIT_MAX);
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -161,6 +188,8 @@ public final class IndividualSoundConfig {
             builder.append(DELIMITER).append(CULL_TOKEN);
         if (this.volumeScale != DEFAULT_VOLUME_SCALE)
             builder.append(DELIMITER).append(this.volumeScale);
+        if (this.rateLimit != RATE_LIMIT_NONE)
+            builder.append(DELIMITER).append(this.rateLimit).append(RATE_SUFFIX);
         return builder.toString();
     }
 }
@@ -17,6 +17,7 @@
  */
 package org.orecruncher.sndctrl.misc;
 
+import org.orecruncher.sndctrl.api.sound.ISoundInstance;
 import org.orecruncher.sndctrl.audio.handlers.SourceContext;
 
 import javax.annotation.Nullable;
@@ -26,4 +27,9 @@ public interface IMixinSoundContext {
     SourceContext getData();
 
     void setData(@Nullable SourceContext data);
+
+    @Nullable
+    ISoundInstance getTrackedSound();
+
+    void setTrackedSound(@Nullable ISoundInstance sound);
 }
@@ -0,0 +1,49 @@
+/*
+ * Dynamic Surroundings: Sound Control
+ * Copyright (C) 2020 OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.mixins;
+
+import net.minecraft.client.resources.sounds.AbstractSoundInstance;
+import org.orecruncher.sndctrl.misc.IMixinSoundVolume;
+import org.spongepowered.asm.mixin.Mixin;
+
+/**
+ * Simple mixin that adds fields to a sound instance where the resolved volume scale of the sound can be cached.
+ */
+@Mixin(AbstractSoundInstance.class)
+public class MixinAbstractSoundInstance implements IMixinSoundVolume {
+
+    private int sndctrl_volumeGeneration = 0;
+    private float sndctrl_volumeScale = 1F;
+
+    @Override
+    public int getVolumeGeneration() {
+        return this.sndctrl_volumeGeneration;
+    }
+
+    @Override
+    public float getVolumeScale() {
+        return this.sndctrl_volumeScale;
+    }
+
+    @Override
+    public void setVolumeScale(final float scale, final int generation) {
+        this.sndctrl_volumeScale = scale;
+        this.sndctrl_volumeGeneration = generation;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Dynamic Surroundings: Sound Control
+ * Copyright (C) 2020 OreCruncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>
+ */
+
+package org.orecruncher.sndctrl.mixins;
+
+import net.minecraft.client.sounds.ChannelAccess;
+import org.orecruncher.sndctrl.audio.handlers.SoundFXProcessor;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Brackets the channel tick on the sound engine thread so the effect uploads made while ticking the channels can
+ * be batched.  The executor is serial so the tasks queued here run immediately before and after the tick task.
+ */
+@Mixin(ChannelAccess.class)
+public class MixinChannelAccess {
+
+    @Final
+    @Shadow
+    private Executor executor;
+
+    @Inject(method = "scheduleTick()V", at = @At("HEAD"))
+    public void onScheduleTickBegin(CallbackInfo ci) {
+        this.executor.execute(SoundFXProcessor::beginTick);
+    }
+
+    @Inject(method = "scheduleTick()V", at = @At("RETURN"))
+    public void onScheduleTickEnd(CallbackInfo ci) {
+        this.executor.execute(SoundFXProcessor::endTick);
+    }
+}
@@ -115,6 +115,36 @@ public class MixinSoundEngine {
         SoundUtils.deinitialize(this.library);
     }
 
+    /**
+     * Lets AudioEngine know that the sound engine is attempting to play a sound.  This happens when a sound is first
+     * played, and when a delayed sound comes off the queue.
+     *
+     * @param sound The sound that is being played
+     * @param ci    Ignored
+     */
+    @Inject(method = "play", at = @At("HEAD"))
+    public void onSoundPlayAttempt(SoundInstance sound, CallbackInfo ci) {
+        try {
+            AudioEngine.onPlayAttempt(sound);
+        } catch(@Nonnull final Throwable t) {
+            SoundControl.LOGGER.error(t, "Error in onSoundPlayAttempt()!");
+        }
+    }
+
+    /**
+     * Lets AudioEngine know that the sound engine is dropping all of its sounds.
+     *
+     * @param ci Ignored
+     */
+    @Inject(method = "stopAll", at = @At("HEAD"))
+    public void onStopAll(CallbackInfo ci) {
+        try {
+            AudioEngine.onStopAll();
+        } catch(@Nonnull final Throwable t) {
+            SoundControl.LOGGER.error(t, "Error in onStopAll()!");
+        }
+    }
+
     /**
      * Callback will trigger creation of sound context information for the sound play once it has been queued to the
      * sound engine.  It will also perform the first calculations of sound effects based on the player environment.
@@ -141,7 +171,7 @@ public class MixinSoundEngine {
     public void onSoundPlay(SoundInstance p_sound, CallbackInfo ci, WeighedSoundEvents soundeventaccessor, ResourceLocation resourcelocation, Sound sound, float f, float f1, SoundSource soundcategory, float f2, float f3, SoundInstance.Attenuation attenuationtype, boolean flag, Vec3 vector3d, boolean flag2, boolean flag3, CompletableFuture completablefuture, ChannelAccess.ChannelHandle entry) {
         try {
             SoundFXProcessor.onSoundPlay(p_sound, entry);
-            AudioEngine.onPlaySound(p_sound);
+            AudioEngine.onPlaySound(p_sound, entry);
         } catch(@Nonnull final Throwable t) {
             SoundControl.LOGGER.error(t, "Error in onSoundPlay()!");
         }
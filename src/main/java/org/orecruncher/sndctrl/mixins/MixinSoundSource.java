@@ -22,6 +22,8 @@ import com.mojang.blaze3d.audio.Channel;
 import com.mojang.blaze3d.audio.SoundBuffer;
 import org.lwjgl.openal.AL10;
 import org.orecruncher.sndctrl.SoundControl;
+import org.orecruncher.sndctrl.api.sound.ISoundInstance;
+import org.orecruncher.sndctrl.audio.AudioEngine;
 import org.orecruncher.sndctrl.audio.handlers.SoundFXProcessor;
 import org.orecruncher.sndctrl.audio.handlers.SourceContext;
 import org.orecruncher.sndctrl.misc.IMixinSoundContext;
@@ -39,6 +41,7 @@ import javax.annotation.Nullable;
 public class MixinSoundSource implements IMixinSoundContext {
 
     private SourceContext sndctrl_data = null;
+    private ISoundInstance sndctrl_sound = null;
 
     @Shadow
     @Final
@@ -55,6 +58,17 @@ public class MixinSoundSource implements IMixinSoundContext {
         this.sndctrl_data = data;
     }
 
+    @Nullable
+    @Override
+    public ISoundInstance getTrackedSound() {
+        return this.sndctrl_sound;
+    }
+
+    @Override
+    public void setTrackedSound(@Nullable ISoundInstance sound) {
+        this.sndctrl_sound = sound;
+    }
+
     /**
      * Called when the sound is ticked by the sound engine. This will set the sound effect properties for the sound
      * at the time of play.
@@ -96,6 +110,20 @@ public class MixinSoundSource implements IMixinSoundContext {
         }
     }
 
+    /**
+     * Called when the sound engine releases the source because the sound finished or was stopped.  AudioEngine is
+     * told so it can update the state of the sound that was playing.
+     * @param ci Ignored
+     */
+    @Inject(method = "destroy()V", at = @At("HEAD"))
+    public void onDestroy(CallbackInfo ci) {
+        try {
+            AudioEngine.onChannelRelease((Channel) ((Object) this));
+        } catch(@Nonnull final Throwable t) {
+            SoundControl.LOGGER.error(t, "Error in onDestroy()!");
+        }
+    }
+
     /**
      * Called after the audio stream buffer has been generated by the sound engine.  If the sound has non-linear
      * attenuation and is not mono, it will be converted to mono format.  Non-mono sounds will be played in the sound engine